@@ -0,0 +1,303 @@
+/*
+ * This class keeps the fridge items as individual batches, so a recipe can be cooked
+ * and the batches that are left afterwards are known.
+ * 
+ * Fridge items can be duplicated, e.g. bread can have different number of slices with different dates.
+ * e.g.
+ *  bread,2,slices,25/12/2014
+ *  bread,3,slices,23/12/2014
+ * 
+ * Each row is a batch.  The batches of an item are kept in a priority queue ordered by useBy date,
+ * and cooking a recipe takes the amount from the batch that expires first, then the next one and so on.
+ * Taking a whole batch is O(log n).  An ingredient that is past its use-by date cannot be used for
+ * cooking, so the expired batches are removed before cooking.
+ * 
+ * The inventory also keeps the combined FridgeIngredient map used by SearchRecipe, i.e. for each item
+ * the sum of the amount and the minimum useBy date.  The map is updated for the items that change when
+ * cooking or removing expired batches, instead of being rebuilt from all the batches.
+ * 
+ * There is the same assumption as SearchRecipe that fridge items with the same name have the same unit.
+ */
+package recipefinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ *
+ * @author slee
+ */
+public class FridgeInventory {
+  // Orders batches by useBy date, earliest first
+  private static final Comparator<FridgeIngredient> USE_BY_ORDER = new Comparator<FridgeIngredient>() {
+    @Override
+    public int compare(FridgeIngredient fi1, FridgeIngredient fi2) {
+      return fi1.getUseBy().compareTo(fi2.getUseBy());
+    }
+  };
+  
+  private Map<String, PriorityQueue<FridgeIngredient>> batchQueueMap = new HashMap<String, PriorityQueue<FridgeIngredient>>();
+  private Map<String, FridgeIngredient> combinedFridgeIngredientMap = new HashMap<String, FridgeIngredient>();
+  
+  // All the batches by useBy date, used to find expired batches without looking at every item.
+  // A batch that has been used up by cooking stays here until it is polled.
+  private PriorityQueue<FridgeIngredient> expiryQueue = new PriorityQueue<FridgeIngredient>(11, USE_BY_ORDER);
+  
+  /*
+   * The fridge items are copied, so the array passed in is not changed by cooking.
+   * 
+   * @param fridgeIngredientArray
+   */
+  public FridgeInventory(List<FridgeIngredient> fridgeIngredientArray){
+    for (FridgeIngredient fi : fridgeIngredientArray){
+      FridgeIngredient batch = new FridgeIngredient(fi.getItem(), fi.getAmount(), fi.getUnit(), fi.getUseBy());
+      
+      PriorityQueue<FridgeIngredient> batchQueue = batchQueueMap.get(batch.getItem());
+      if (null == batchQueue){
+        batchQueue = new PriorityQueue<FridgeIngredient>(11, USE_BY_ORDER);
+        batchQueueMap.put(batch.getItem(), batchQueue);
+      }
+      batchQueue.add(batch);
+      expiryQueue.add(batch);
+      
+      // Combine as in SearchRecipe: sum of the amount and the minimum useBy date
+      FridgeIngredient combined = combinedFridgeIngredientMap.get(batch.getItem());
+      if (null == combined){
+        combinedFridgeIngredientMap.put(batch.getItem(),
+                new FridgeIngredient(batch.getItem(), batch.getAmount(), batch.getUnit(), batch.getUseBy()));
+      }else{
+        combined.setAmount(combined.getAmount() + batch.getAmount());
+        if (batch.getUseBy().before(combined.getUseBy())){
+          combined.setUseBy(batch.getUseBy());
+        }
+      }
+    }
+  }
+  
+  /*
+   * This method removes the batches with a useBy date before someDate, i.e. the batches
+   * SearchRecipe would filter out for someDate, and returns the items that have changed.
+   * Removed batches are gone for good, so someDate should not go backwards between calls.
+   * 
+   * @param someDate
+   * @return changedItems
+   */
+  public Set<String> removeExpired(Date someDate){
+    Set<String> changedItems = new HashSet<String>();
+    
+    while (!expiryQueue.isEmpty() && expiryQueue.peek().getUseBy().before(someDate)){
+      String item = expiryQueue.poll().getItem();
+      
+      // The batches of the item are ordered by useBy date, so the expired ones are at the head of its queue.
+      // If the polled batch has been used up by cooking or removed with an earlier batch, there is nothing to do.
+      PriorityQueue<FridgeIngredient> batchQueue = batchQueueMap.get(item);
+      int amountExpired = 0;
+      boolean removed = false;
+      while (null != batchQueue && !batchQueue.isEmpty() && batchQueue.peek().getUseBy().before(someDate)){
+        amountExpired += batchQueue.poll().getAmount();
+        removed = true;
+      }
+      if (removed){
+        takeFromCombined(item, amountExpired);
+        changedItems.add(item);
+      }
+    }
+    return changedItems;
+  }
+  
+  /*
+   * This method returns true if any batch left has a useBy date before someDate, i.e. if
+   * removeExpired(someDate) would change the inventory.
+   * 
+   * @param someDate
+   * @return true if a batch has expired by someDate
+   */
+  public boolean hasExpired(Date someDate){
+    // The combined useBy date of an item is the earliest date of its batches left
+    for (FridgeIngredient combined : combinedFridgeIngredientMap.values()){
+      if (combined.getUseBy().before(someDate)){
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /*
+   * This method returns true if the inventory has enough of every ingredient of the recipe,
+   * counting only the batches that have not expired by someDate.  The inventory is not changed.
+   * If an item is listed more than once in the recipe, the amounts are added up.
+   * As in SearchRecipe, an item that is not in the fridge cannot be used, even for an amount of 0.
+   * 
+   * @param recipe
+   * @param someDate
+   * @return true if the recipe can be cooked
+   */
+  public boolean canCook(Recipe recipe, Date someDate){
+    for (Map.Entry<String, Integer> entry : getRequiredAmount(recipe).entrySet()){
+      if (!hasItem(entry.getKey(), someDate) || getAmount(entry.getKey(), someDate) < entry.getValue()){
+        return false;
+      }
+    }
+    return true;
+  }
+  
+  /*
+   * This method cooks the recipe on someDate by taking the amount of each ingredient from the batches
+   * that expire first, and returns the amounts taken from each batch.
+   * The batches that have expired by someDate are removed first, as they cannot be used for cooking.
+   * If the recipe cannot be cooked, nothing is taken and null is returned.
+   * 
+   * @param recipe
+   * @param someDate
+   * @return usedFridgeIngredientArray
+   */
+  public List<FridgeIngredient> cook(Recipe recipe, Date someDate){
+    removeExpired(someDate);
+    if (!canCook(recipe, someDate)){
+      return null;
+    }
+    
+    List<FridgeIngredient> usedFridgeIngredientArray = new ArrayList<FridgeIngredient>();
+    for (Map.Entry<String, Integer> entry : getRequiredAmount(recipe).entrySet()){
+      PriorityQueue<FridgeIngredient> batchQueue = batchQueueMap.get(entry.getKey());
+      int amountNeeded = entry.getValue();
+      
+      while (amountNeeded > 0){
+        FridgeIngredient batch = batchQueue.peek();
+        int amountUsed = Math.min(amountNeeded, batch.getAmount());
+        
+        if (amountUsed == batch.getAmount()){
+          // Use up the whole batch; it stays in expiryQueue until it expires
+          batchQueue.poll();
+        }
+        // Changing the amount does not change the order of the queue, which is by useBy date
+        batch.setAmount(batch.getAmount() - amountUsed);
+        amountNeeded -= amountUsed;
+        
+        usedFridgeIngredientArray.add(new FridgeIngredient(batch.getItem(), amountUsed, batch.getUnit(), batch.getUseBy()));
+      }
+      takeFromCombined(entry.getKey(), entry.getValue());
+    }
+    return usedFridgeIngredientArray;
+  }
+  
+  /*
+   * This method returns the combined FridgeIngredient map in this format <item, FridgeIngredient>,
+   * with the sum of the amount and the minimum useBy date of the batches left.
+   * The map is kept up to date by the inventory and cannot be changed by the caller.
+   * 
+   * @return combinedFridgeIngredientMap
+   */
+  public Map<String, FridgeIngredient> getCombinedFridgeIngredientMap(){
+    return Collections.unmodifiableMap(combinedFridgeIngredientMap);
+  }
+  
+  /*
+   * This method returns a copy of the batches left, earliest useBy date first for each item
+   * 
+   * @return fridgeIngredientArray
+   */
+  public List<FridgeIngredient> getFridgeIngredientArray(){
+    List<FridgeIngredient> fridgeIngredientArray = new ArrayList<FridgeIngredient>();
+    
+    for (PriorityQueue<FridgeIngredient> batchQueue : batchQueueMap.values()){
+      List<FridgeIngredient> batchArray = new ArrayList<FridgeIngredient>(batchQueue);
+      Collections.sort(batchArray, USE_BY_ORDER);
+      for (FridgeIngredient batch : batchArray){
+        fridgeIngredientArray.add(new FridgeIngredient(batch.getItem(), batch.getAmount(), batch.getUnit(), batch.getUseBy()));
+      }
+    }
+    return fridgeIngredientArray;
+  }
+  
+  /*
+   * This method returns true if the item has a batch that has not expired by someDate
+   * 
+   * @param item
+   * @param someDate
+   * @return true if the item is in the fridge on someDate
+   */
+  private boolean hasItem(String item, Date someDate){
+    FridgeIngredient combined = combinedFridgeIngredientMap.get(item);
+    if (null == combined){
+      return false;
+    }
+    if (!combined.getUseBy().before(someDate)){
+      return true;   // No batch of the item has expired
+    }
+    
+    for (FridgeIngredient batch : batchQueueMap.get(item)){
+      if (!batch.getUseBy().before(someDate)){
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /*
+   * This method returns the amount of the item in the batches that have not expired by someDate
+   * 
+   * @param item
+   * @param someDate
+   * @return amount
+   */
+  private int getAmount(String item, Date someDate){
+    FridgeIngredient combined = combinedFridgeIngredientMap.get(item);
+    if (null == combined){
+      return 0;
+    }
+    if (!combined.getUseBy().before(someDate)){
+      return combined.getAmount();   // No batch of the item has expired
+    }
+    
+    int amount = 0;
+    for (FridgeIngredient batch : batchQueueMap.get(item)){
+      if (!batch.getUseBy().before(someDate)){
+        amount += batch.getAmount();
+      }
+    }
+    return amount;
+  }
+  
+  /*
+   * This method takes the amount from the combined FridgeIngredient of the item after the batches
+   * have been updated.  The minimum useBy date is the date of the batch now at the head of the queue,
+   * and the item is removed from the map when there are no batches left.
+   * 
+   * @param item
+   * @param amount
+   */
+  private void takeFromCombined(String item, int amount){
+    PriorityQueue<FridgeIngredient> batchQueue = batchQueueMap.get(item);
+    
+    if (batchQueue.isEmpty()){
+      batchQueueMap.remove(item);
+      combinedFridgeIngredientMap.remove(item);
+    }else{
+      FridgeIngredient combined = combinedFridgeIngredientMap.get(item);
+      combined.setAmount(combined.getAmount() - amount);
+      combined.setUseBy(batchQueue.peek().getUseBy());
+    }
+  }
+  
+  /*
+   * @param recipe
+   * @return map of item to the total amount the recipe needs
+   */
+  private static Map<String, Integer> getRequiredAmount(Recipe recipe){
+    Map<String, Integer> requiredAmountMap = new HashMap<String, Integer>();
+    for (Ingredient ig : recipe.getIngredientArray()){
+      Integer amount = requiredAmountMap.get(ig.getItem());
+      requiredAmountMap.put(ig.getItem(), (null == amount ? 0 : amount) + ig.getAmount());
+    }
+    return requiredAmountMap;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * This class provides methods to read the json ingredient tag file.
+ * 
+ * The file maps an item to its tags, e.g. to describe what a dietary constraint excludes:
+ * 
+ * {
+ *   "ham": ["meat"],
+ *   "cheese": ["dairy"],
+ *   "peanut butter": ["nuts"]
+ * }
+ * 
+ * A query such as "vegetarian, no nuts, no dairy" is then the set of tags to exclude,
+ * e.g. meat, fish, nuts and dairy.
+ * 
+ * As in RecipeReader, two getIngredientTag methods are provided: 1 takes in a JSON file path
+ * which calls the other one which takes in a JSONObject.
+ */
+package recipefinder;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ *
+ * @author slee
+ */
+public class IngredientTagReader {
+  
+  /*
+   * This method reads the json ingredient tag file and returns a map in this format <item, tags>
+   * 
+   * @param ingredientTagJsonFilePath
+   * @return ingredientTagMap
+   */
+  public Map<String, List<String>> getIngredientTag(String ingredientTagJsonFilePath){
+    Map<String, List<String>> ingredientTagMap = null;
+    
+    JSONParser parser = new JSONParser();
+
+    try {
+      //Read json ingredient tag file
+      JSONObject jsonIngredientTagObject = (JSONObject) parser.parse(new FileReader(ingredientTagJsonFilePath));
+      
+      ingredientTagMap = getIngredientTag(jsonIngredientTagObject);
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error reading file " + ingredientTagJsonFilePath);
+      System.exit(4);
+    } catch (org.json.simple.parser.ParseException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error pasring json at position " + parser.getPosition());
+      System.out.println(parser);
+      System.exit(5);
+    }
+    
+    return ingredientTagMap;
+  }
+
+  /*
+   * This method returns the map in this format <item, tags> for the given jsonIngredientTagObject
+   * 
+   * @param jsonIngredientTagObject
+   * @return ingredientTagMap
+   */
+  public Map<String, List<String>> getIngredientTag(JSONObject jsonIngredientTagObject){
+    Map<String, List<String>> ingredientTagMap = new HashMap<String, List<String>>();
+    
+    for (Object itemObject : jsonIngredientTagObject.keySet()){
+      String item = (String) itemObject;
+      
+      List<String> tagArray = new ArrayList<String>();
+      for (Object tagObject : (JSONArray) jsonIngredientTagObject.get(item)){
+        tagArray.add((String) tagObject);
+      }
+      ingredientTagMap.put(item, tagArray);
+    }
+    return ingredientTagMap;
+  }
+}
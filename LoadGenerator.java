@@ -0,0 +1,201 @@
+/*
+ * This class generates fridge csv files and recipe json files for load testing.
+ * 
+ * The files are written in the same formats as described in README.md, so they can be
+ * read by FridgeReader and RecipeReader:
+ * 
+ *   fridge csv   - item,amount,unit,dd/MM/yyyy
+ *   recipes json - [ {"name": "...", "ingredients": [ {"item":"...", "amount":"...", "unit":"..."} ]} ]
+ * 
+ * Item names are drawn from a fixed vocabulary of itemCount names.  How often each item is picked
+ * follows a Zipf distribution with the given skew, so a few items (e.g. bread, eggs) are in most
+ * fridges and recipes while most items are rare.  A skew of 0 picks every item equally often.
+ * 
+ * Each item always has the same unit, which keeps the assumption in SearchRecipe that
+ * fridge items with the same name have the same unit.
+ */
+package recipefinder;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ *
+ * @author slee
+ */
+public class LoadGenerator {
+  private static final String DATE_FORMAT = "dd/MM/yyyy";
+  private static final int MAX_FRIDGE_AMOUNT = 500;
+  private static final int MAX_RECIPE_AMOUNT = 200;
+  private static final int MAX_USE_BY_DAYS = 30;    // Use-by dates are within this many days of someDate
+  
+  private int itemCount;
+  private double expiredRatio;
+  private Date someDate;
+  private Random random;
+  private double[] cumulativeWeight;   // Cumulative Zipf weight of each item, used to pick an item
+  
+  /*
+   * @param itemCount - number of distinct item names
+   * @param skew - Zipf exponent, 0 for uniform
+   * @param expiredRatio - ratio of fridge items with a use-by date before someDate
+   * @param someDate - the date the search will be run for
+   * @param seed - random seed, so the same files can be generated again
+   */
+  public LoadGenerator(int itemCount, double skew, double expiredRatio, Date someDate, long seed){
+    this.itemCount = itemCount;
+    this.expiredRatio = expiredRatio;
+    this.someDate = someDate;
+    this.random = new Random(seed);
+    
+    // Item of rank r has weight 1/r^skew
+    cumulativeWeight = new double[itemCount];
+    double total = 0;
+    for (int i = 0; i < itemCount; i++){
+      total += 1 / Math.pow(i + 1, skew);
+      cumulativeWeight[i] = total;
+    }
+  }
+  
+  /*
+   * This method writes a fridge csv file with fridgeSize lines.
+   * 
+   * @param fridgeCsvFilePath
+   * @param fridgeSize
+   */
+  public void writeFridgeCsv(String fridgeCsvFilePath, int fridgeSize){
+    DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+    PrintWriter writer = null;
+    
+    try {
+      writer = new PrintWriter(new FileWriter(fridgeCsvFilePath));
+      
+      for (int i = 0; i < fridgeSize; i++){
+        int itemIndex = nextItemIndex();
+        int amount = 1 + random.nextInt(MAX_FRIDGE_AMOUNT);
+        
+        // Expired items are up to MAX_USE_BY_DAYS before someDate, others are from someDate onwards
+        int days = 1 + random.nextInt(MAX_USE_BY_DAYS);
+        Date useBy = addDays(someDate, random.nextDouble() < expiredRatio ? -days : days - 1);
+        
+        writer.println(itemName(itemIndex) + "," + amount + "," + itemUnit(itemIndex) + "," + dateFormat.format(useBy));
+      }
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error writing file " + fridgeCsvFilePath);
+      System.exit(8);
+    } finally {
+      if (null != writer){
+        writer.close();
+      }
+    }
+  }
+  
+  /*
+   * This method writes a recipe json file with recipeCount recipes, each having
+   * 1 to maxIngredientCount distinct ingredients.
+   * 
+   * @param recipeJsonFilePath
+   * @param recipeCount
+   * @param maxIngredientCount
+   */
+  @SuppressWarnings("unchecked")
+  public void writeRecipeJson(String recipeJsonFilePath, int recipeCount, int maxIngredientCount){
+    JSONArray jsonRecipeArray = new JSONArray();
+    
+    for (int i = 0; i < recipeCount; i++){
+      JSONArray jsonIngredientArray = new JSONArray();
+      int ingredientCount = 1 + random.nextInt(Math.min(maxIngredientCount, itemCount));
+      
+      // An item appears only once in a recipe
+      Set<Integer> usedItemIndex = new HashSet<Integer>();
+      while (usedItemIndex.size() < ingredientCount){
+        int itemIndex = nextItemIndex();
+        if (usedItemIndex.add(itemIndex)){
+          JSONObject jsonIngredientObject = new JSONObject();
+          jsonIngredientObject.put(Ingredient.ITEM, itemName(itemIndex));
+          jsonIngredientObject.put(Ingredient.AMOUNT, String.valueOf(1 + random.nextInt(MAX_RECIPE_AMOUNT)));
+          jsonIngredientObject.put(Ingredient.UNIT, itemUnit(itemIndex).name());
+          jsonIngredientArray.add(jsonIngredientObject);
+        }
+      }
+      
+      JSONObject jsonRecipeObject = new JSONObject();
+      jsonRecipeObject.put(Recipe.NAME, "recipe " + i);
+      jsonRecipeObject.put(Recipe.INGREDIENTS, jsonIngredientArray);
+      jsonRecipeArray.add(jsonRecipeObject);
+    }
+    
+    FileWriter writer = null;
+    try {
+      writer = new FileWriter(recipeJsonFilePath);
+      jsonRecipeArray.writeJSONString(writer);
+      writer.close();
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error writing file " + recipeJsonFilePath);
+      System.exit(8);
+    }
+  }
+  
+  /*
+   * This method returns the index of a random item following the Zipf distribution
+   * 
+   * @return itemIndex
+   */
+  private int nextItemIndex(){
+    double r = random.nextDouble() * cumulativeWeight[itemCount - 1];
+    
+    // Binary search for the first item with cumulative weight greater than r
+    int low = 0, high = itemCount - 1;
+    while (low < high){
+      int mid = (low + high) >>> 1;
+      if (cumulativeWeight[mid] > r){
+        high = mid;
+      }else{
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+  
+  /*
+   * @param itemIndex
+   * @return item name
+   */
+  private static String itemName(int itemIndex){
+    return "item" + itemIndex;
+  }
+  
+  /*
+   * @param itemIndex
+   * @return unit of the item, always the same for the same item
+   */
+  private static Unit itemUnit(int itemIndex){
+    return Unit.values()[itemIndex % Unit.values().length];
+  }
+  
+  /*
+   * @param date
+   * @param days
+   * @return date plus days
+   */
+  private static Date addDays(Date date, int days){
+    Calendar cal = Calendar.getInstance();
+    cal.setTime(date);
+    cal.add(Calendar.DATE, days);
+    return cal.getTime();
+  }
+}
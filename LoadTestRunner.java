@@ -0,0 +1,377 @@
+/*
+ * This class measures the throughput and latency of the whole recipe finder flow:
+ * reading the fridge csv file, reading the recipe json file and searching the recipe.
+ * 
+ * It first uses LoadGenerator to write a fridge csv file for each fridge size and a recipe json
+ * file for each recipe count.  Then a number of threads call the finder concurrently; each call picks
+ * a random fridge file and a random recipe file, so the run covers a mix of fridge and catalog sizes.
+ * 
+ * The result is printed as a single JSON object so runs can be compared by a script:
+ * 
+ *   throughput (calls per second), latency percentiles p50/p99/p999 in milliseconds (overall and
+ *   for each fridge size and recipe count pair) and the GC count, time and overhead during the run.
+ * 
+ * Usage: java -cp recipeFinder.jar recipefinder.LoadTestRunner [option=value ...]
+ * 
+ *   dir          - directory for the generated files (default: a new temp directory)
+ *   fridgeSizes  - comma separated fridge csv line counts (default: 20,200,2000)
+ *   recipeCounts - comma separated recipe counts (default: 100,1000,10000)
+ *   items        - number of distinct item names (default: 500)
+ *   ingredients  - maximum ingredients per recipe (default: 5)
+ *   skew         - Zipf exponent of item popularity, 0 for uniform (default: 1.0)
+ *   expired      - ratio of fridge items that have expired (default: 0.2)
+ *   threads      - number of concurrent callers (default: 8)
+ *   requests     - number of measured calls (default: 2000)
+ *   warmup       - number of calls before measuring (default: 500)
+ *   seed         - random seed (default: 42)
+ *   output       - also write the JSON result to this file
+ */
+package recipefinder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ *
+ * @author slee
+ */
+public class LoadTestRunner {
+  private String[] fridgeCsvFilePath;
+  private String[] recipeJsonFilePath;
+  private Date someDate;
+  private int threadCount;
+  private long seed;
+  
+  private AtomicInteger foundCount = new AtomicInteger();
+  
+  /*
+   * @param fridgeCsvFilePath
+   * @param recipeJsonFilePath
+   * @param someDate
+   * @param threadCount
+   * @param seed
+   */
+  public LoadTestRunner(String[] fridgeCsvFilePath, String[] recipeJsonFilePath, Date someDate, int threadCount, long seed){
+    this.fridgeCsvFilePath = fridgeCsvFilePath;
+    this.recipeJsonFilePath = recipeJsonFilePath;
+    this.someDate = someDate;
+    this.threadCount = threadCount;
+    this.seed = seed;
+  }
+
+  /**
+   * @param args the command line arguments
+   */
+  @SuppressWarnings("unchecked")
+  public static void main(String[] args) {
+    Map<String, String> options = new HashMap<String, String>();
+    for (String arg : args){
+      int index = arg.indexOf('=');
+      if (index < 0){
+        System.out.println("Usage: LoadTestRunner [option=value ...]");
+        System.exit(1);
+      }
+      options.put(arg.substring(0, index), arg.substring(index + 1));
+    }
+    
+    int[] fridgeSizes = parseIntList(getOption(options, "fridgeSizes", "20,200,2000"));
+    int[] recipeCounts = parseIntList(getOption(options, "recipeCounts", "100,1000,10000"));
+    int itemCount = Integer.parseInt(getOption(options, "items", "500"));
+    int maxIngredientCount = Integer.parseInt(getOption(options, "ingredients", "5"));
+    double skew = Double.parseDouble(getOption(options, "skew", "1.0"));
+    double expiredRatio = Double.parseDouble(getOption(options, "expired", "0.2"));
+    int threadCount = Integer.parseInt(getOption(options, "threads", "8"));
+    int requestCount = Integer.parseInt(getOption(options, "requests", "2000"));
+    int warmupCount = Integer.parseInt(getOption(options, "warmup", "500"));
+    long seed = Long.parseLong(getOption(options, "seed", "42"));
+    
+    File dir = null;
+    try {
+      dir = options.containsKey("dir") ? new File(options.get("dir")) : File.createTempFile("recipeFinderLoad", "");
+      if (!options.containsKey("dir")){
+        dir.delete();   // Replace the temp file with a directory of the same name
+      }
+      dir.mkdirs();
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error creating directory for generated files");
+      System.exit(8);
+    }
+    
+    // Run the search for today, with the time cleared as the use-by dates in the fridge csv have no time
+    Calendar cal = Calendar.getInstance();
+    cal.set(Calendar.HOUR_OF_DAY, 0);
+    cal.set(Calendar.MINUTE, 0);
+    cal.set(Calendar.SECOND, 0);
+    cal.set(Calendar.MILLISECOND, 0);
+    Date someDate = cal.getTime();
+    
+    // Generate the files
+    LoadGenerator loadGenerator = new LoadGenerator(itemCount, skew, expiredRatio, someDate, seed);
+    String[] fridgeCsvFilePath = new String[fridgeSizes.length];
+    for (int i = 0; i < fridgeSizes.length; i++){
+      fridgeCsvFilePath[i] = new File(dir, "fridge-" + fridgeSizes[i] + ".csv").getPath();
+      loadGenerator.writeFridgeCsv(fridgeCsvFilePath[i], fridgeSizes[i]);
+    }
+    String[] recipeJsonFilePath = new String[recipeCounts.length];
+    for (int i = 0; i < recipeCounts.length; i++){
+      recipeJsonFilePath[i] = new File(dir, "recipes-" + recipeCounts[i] + ".json").getPath();
+      loadGenerator.writeRecipeJson(recipeJsonFilePath[i], recipeCounts[i], maxIngredientCount);
+    }
+    
+    // Run and report
+    LoadTestRunner runner = new LoadTestRunner(fridgeCsvFilePath, recipeJsonFilePath, someDate, threadCount, seed);
+    runner.run(warmupCount, new long[warmupCount], new int[warmupCount]);
+    JSONObject result = runner.measure(requestCount, fridgeSizes, recipeCounts);
+    
+    JSONObject config = new JSONObject();
+    config.put("dir", dir.getPath());
+    config.put("items", itemCount);
+    config.put("ingredients", maxIngredientCount);
+    config.put("skew", skew);
+    config.put("expired", expiredRatio);
+    config.put("threads", threadCount);
+    config.put("warmup", warmupCount);
+    config.put("seed", seed);
+    result.put("config", config);
+    
+    System.out.println(result.toJSONString());
+    
+    if (options.containsKey("output")){
+      try {
+        FileWriter writer = new FileWriter(options.get("output"));
+        result.writeJSONString(writer);
+        writer.close();
+      } catch (IOException ex) {
+        Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+        System.out.println("Error writing file " + options.get("output"));
+        System.exit(8);
+      }
+    }
+  }
+  
+  /*
+   * This method runs requestCount calls and returns the measured result as a JSON object.
+   * 
+   * @param requestCount
+   * @param fridgeSizes - used to label the scenarios
+   * @param recipeCounts - used to label the scenarios
+   * @return result
+   */
+  @SuppressWarnings("unchecked")
+  public JSONObject measure(int requestCount, int[] fridgeSizes, int[] recipeCounts){
+    long[] latency = new long[requestCount];
+    int[] scenario = new int[requestCount];   // fridge index * number of recipe files + recipe index
+    
+    foundCount.set(0);
+    long gcCountBefore = getGcCount(), gcTimeBefore = getGcTime();
+    long start = System.nanoTime();
+    
+    run(requestCount, latency, scenario);
+    
+    long elapsed = System.nanoTime() - start;
+    long gcCount = getGcCount() - gcCountBefore, gcTime = getGcTime() - gcTimeBefore;
+    
+    JSONObject result = new JSONObject();
+    result.put("requests", requestCount);
+    result.put("found", foundCount.get());
+    result.put("elapsedMillis", elapsed / 1000000.0);
+    result.put("throughputPerSecond", requestCount / (elapsed / 1000000000.0));
+    result.put("latencyMillis", latencySummary(latency, requestCount));
+    
+    JSONObject gc = new JSONObject();
+    gc.put("count", gcCount);
+    gc.put("timeMillis", gcTime);
+    gc.put("overheadPercent", 100.0 * gcTime / (elapsed / 1000000.0));
+    result.put("gc", gc);
+    
+    // Latency for each fridge size and recipe count pair
+    JSONArray scenarios = new JSONArray();
+    for (int f = 0; f < fridgeSizes.length; f++){
+      for (int r = 0; r < recipeCounts.length; r++){
+        long[] scenarioLatency = new long[requestCount];
+        int count = 0;
+        for (int i = 0; i < requestCount; i++){
+          if (scenario[i] == f * recipeCounts.length + r){
+            scenarioLatency[count++] = latency[i];
+          }
+        }
+        
+        JSONObject scenarioResult = latencySummary(scenarioLatency, count);
+        scenarioResult.put("fridgeSize", fridgeSizes[f]);
+        scenarioResult.put("recipeCount", recipeCounts[r]);
+        scenarioResult.put("requests", count);
+        scenarios.add(scenarioResult);
+      }
+    }
+    result.put("scenarios", scenarios);
+    return result;
+  }
+  
+  /*
+   * This method makes requestCount calls from threadCount threads and records the latency
+   * and the scenario of each call.
+   * 
+   * @param requestCount
+   * @param latency - latency of each call in nanoseconds
+   * @param scenario - scenario of each call
+   */
+  private void run(final int requestCount, final long[] latency, final int[] scenario){
+    final AtomicInteger nextRequest = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    List<Future<Object>> futures = new ArrayList<Future<Object>>();
+    
+    for (int t = 0; t < threadCount; t++){
+      final Random random = new Random(seed + t);
+      futures.add(executor.submit(new Callable<Object>() {
+        @Override
+        public Object call() {
+          // Each thread takes the next request number until all the requests are done
+          for (int n = nextRequest.getAndIncrement(); n < requestCount; n = nextRequest.getAndIncrement()){
+            int f = random.nextInt(fridgeCsvFilePath.length), r = random.nextInt(recipeJsonFilePath.length);
+            
+            long start = System.nanoTime();
+            Recipe recipe = findRecipe(fridgeCsvFilePath[f], recipeJsonFilePath[r]);
+            latency[n] = System.nanoTime() - start;
+            scenario[n] = f * recipeJsonFilePath.length + r;
+            
+            if (null != recipe){
+              foundCount.incrementAndGet();
+            }
+          }
+          return null;
+        }
+      }));
+    }
+    
+    try {
+      for (Future<Object> future : futures){
+        future.get();
+      }
+    } catch (InterruptedException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error running load test");
+      System.exit(9);
+    } finally {
+      executor.shutdown();
+    }
+  }
+  
+  /*
+   * This method does the same steps as RecipeFinder.findRecipe(), but returns the recipe
+   * instead of printing it.
+   * 
+   * @param fridgeCsvFilePath
+   * @param recipeJsonFilePath
+   * @return recipe
+   */
+  private Recipe findRecipe(String fridgeCsvFilePath, String recipeJsonFilePath){
+    FridgeReader fridgeReader = new FridgeReader();
+    List<FridgeIngredient> fridgeIngredientArray = fridgeReader.getFridgeIngredientFromFile(fridgeCsvFilePath);
+    
+    RecipeReader recipeReader = new RecipeReader();
+    List<Recipe> recipeArray = recipeReader.getRecipe(recipeJsonFilePath);
+    
+    return new SearchRecipe().search(fridgeIngredientArray, recipeArray, someDate);
+  }
+  
+  /*
+   * @param latency - in nanoseconds, only the first count values are used
+   * @param count
+   * @return JSON object with the percentiles in milliseconds
+   */
+  @SuppressWarnings("unchecked")
+  private static JSONObject latencySummary(long[] latency, int count){
+    long[] sorted = Arrays.copyOf(latency, count);
+    Arrays.sort(sorted);
+    
+    JSONObject summary = new JSONObject();
+    summary.put("p50", percentile(sorted, 0.5));
+    summary.put("p99", percentile(sorted, 0.99));
+    summary.put("p999", percentile(sorted, 0.999));
+    summary.put("max", count == 0 ? 0.0 : sorted[count - 1] / 1000000.0);
+    return summary;
+  }
+  
+  /*
+   * @param sorted - latency in nanoseconds, sorted
+   * @param p - between 0 and 1
+   * @return the nearest-rank percentile in milliseconds
+   */
+  private static double percentile(long[] sorted, double p){
+    if (sorted.length == 0){
+      return 0.0;
+    }
+    int index = (int) Math.ceil(p * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1000000.0;
+  }
+  
+  /*
+   * @return total number of collections of all the garbage collectors
+   */
+  private static long getGcCount(){
+    long count = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()){
+      count += Math.max(gc.getCollectionCount(), 0);
+    }
+    return count;
+  }
+  
+  /*
+   * @return total collection time in milliseconds of all the garbage collectors
+   */
+  private static long getGcTime(){
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()){
+      time += Math.max(gc.getCollectionTime(), 0);
+    }
+    return time;
+  }
+  
+  /*
+   * @param options
+   * @param name
+   * @param defaultValue
+   * @return option value
+   */
+  private static String getOption(Map<String, String> options, String name, String defaultValue){
+    return options.containsKey(name) ? options.get(name) : defaultValue;
+  }
+  
+  /*
+   * @param value - comma separated integers
+   * @return int array
+   */
+  private static int[] parseIntList(String value){
+    String[] parts = value.split(",");
+    int[] result = new int[parts.length];
+    for (int i = 0; i < parts.length; i++){
+      result[i] = Integer.parseInt(parts[i].trim());
+    }
+    return result;
+  }
+}
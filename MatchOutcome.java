@@ -0,0 +1,22 @@
+/*
+ * This enum defines the outcome of matching a recipe against the fridge items
+ */
+package recipefinder;
+
+/**
+ *
+ * @author slee
+ * 
+ * This enum lists the reasons a recipe is accepted or rejected by SearchRecipe.
+ * It is only used when the search is run in explain mode.
+ * 
+ *   MATCHED             - all the ingredients are available in the fridge
+ *   MISSING             - an ingredient is not in the fridge at all
+ *   INSUFFICIENT_AMOUNT - an ingredient is in the fridge but the combined amount is not enough
+ *   EXPIRED_ONLY        - an ingredient is in the fridge but every item of it has expired
+ *   EXCLUDED            - an ingredient has a tag the search excludes, e.g. nuts
+ *   NO_INGREDIENTS      - the recipe has no ingredients, so it is never returned
+ */
+public enum MatchOutcome {
+  MATCHED, MISSING, INSUFFICIENT_AMOUNT, EXPIRED_ONLY, EXCLUDED, NO_INGREDIENTS;
+}
@@ -0,0 +1,189 @@
+/*
+ * This class stores the recipe array together with a tag bitmask for each recipe, so recipes
+ * can be excluded by tag, e.g. "no nuts, no dairy", without looking at their ingredients.
+ * 
+ * The tags of each item come from the ingredient tag file (see IngredientTagReader) and are
+ * loaded once with the recipes.  Each distinct tag is given a bit, and the mask of a recipe is
+ * the OR of the tags of all its ingredients.  A query turns its excluded tags into a mask once,
+ * then a recipe is excluded if its mask and the query mask have any bit in common.
+ * 
+ * A long is used for the mask, so there can be at most 64 distinct tags.
+ * 
+ * A catalog built without an ingredient tag map cannot exclude anything, so it refuses a query
+ * with excluded tags instead of returning recipes that may have them, e.g. nuts for an allergy.
+ * For the same reason a tag that is not in the ingredient tag map, e.g. a misspelt "nut", is refused
+ * rather than ignored.
+ * 
+ * A catalog can also be built from the tags only, e.g. by a RecipeShardWorker that keeps the masks of
+ * its own recipes; getRecipeTagMask(recipe) then gives the mask of any recipe.
+ * 
+ * buildRecipeDominance() can also be called after loading to find the recipes that are variants of
+ * other recipes (see RecipeDominance), which SearchRecipe then uses to skip recipes that cannot be made.
+ */
+package recipefinder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author slee
+ */
+public class RecipeCatalog {
+  public final static int MAX_TAG_COUNT = Long.SIZE;
+  
+  private List<Recipe> recipeArray;
+  private Map<String, Integer> tagBitMap = new HashMap<String, Integer>();   // <tag, bit position>
+  private Map<String, Long> itemTagMaskMap = new HashMap<String, Long>();    // <item, tag mask>
+  private long[] recipeTagMask;                                             // Tag mask of each recipe
+  private boolean hasIngredientTag;                                        // false if built without an ingredient tag map
+  private RecipeDominance recipeDominance;                                  // null until buildRecipeDominance() is called
+  
+  /*
+   * This constructor builds a catalog with the tags only and no recipes
+   * 
+   * @param ingredientTagMap - in this format <item, tags>; null if there is no ingredient tag file
+   */
+  public RecipeCatalog(Map<String, List<String>> ingredientTagMap){
+    this(new ArrayList<Recipe>(), ingredientTagMap);
+  }
+  
+  /*
+   * @param recipeArray
+   * @param ingredientTagMap - in this format <item, tags>; null if there is no ingredient tag file
+   */
+  public RecipeCatalog(List<Recipe> recipeArray, Map<String, List<String>> ingredientTagMap){
+    this.recipeArray = recipeArray;
+    this.hasIngredientTag = null != ingredientTagMap;
+    if (null == ingredientTagMap){
+      ingredientTagMap = new HashMap<String, List<String>>();
+    }
+    
+    // Work out the mask of each item once
+    for (Map.Entry<String, List<String>> entry : ingredientTagMap.entrySet()){
+      long mask = 0;
+      for (String tag : entry.getValue()){
+        Integer bit = tagBitMap.get(tag);
+        if (null == bit){
+          if (tagBitMap.size() == MAX_TAG_COUNT){
+            throw new IllegalArgumentException("More than " + MAX_TAG_COUNT + " ingredient tags");
+          }
+          bit = tagBitMap.size();
+          tagBitMap.put(tag, bit);
+        }
+        mask |= 1L << bit;
+      }
+      itemTagMaskMap.put(entry.getKey(), mask);
+    }
+    
+    // The mask of a recipe is the OR of the masks of its ingredients
+    recipeTagMask = new long[recipeArray.size()];
+    int index = 0;
+    for (Recipe rp : recipeArray){
+      recipeTagMask[index++] = getRecipeTagMask(rp);
+    }
+  }
+  
+  /*
+   * This method builds the dominance DAG of the recipes and returns it.  Searches on this
+   * catalog use it from then on.
+   * 
+   * @return recipeDominance
+   */
+  public RecipeDominance buildRecipeDominance(){
+    recipeDominance = new RecipeDominance(recipeArray);
+    return recipeDominance;
+  }
+  
+  /*
+   * This method returns the mask for the given tags
+   * 
+   * @param tags
+   * @return tagMask
+   * @throws IllegalArgumentException if there are tags but the catalog has no ingredient tag map,
+   *         or any tag is not in the ingredient tag map
+   */
+  public long getTagMask(Collection<String> tags){
+    long mask = 0;
+    if (null != tags && !tags.isEmpty() && !hasIngredientTag){
+      throw new IllegalArgumentException("No ingredient tags loaded, cannot exclude tags " + tags);
+    }
+    if (null != tags){
+      List<String> unknownTags = new ArrayList<String>();
+      for (String tag : tags){
+        Integer bit = tagBitMap.get(tag);
+        if (null == bit){
+          unknownTags.add(tag);
+        }else{
+          mask |= 1L << bit;
+        }
+      }
+      if (!unknownTags.isEmpty()){
+        throw new IllegalArgumentException("Unknown ingredient tags " + unknownTags + ", known tags are " + tagBitMap.keySet());
+      }
+    }
+    return mask;
+  }
+  
+  /*
+   * @param index - position of the recipe in the recipe array
+   * @param excludedTagMask
+   * @return true if the recipe has any of the excluded tags
+   */
+  public boolean isExcluded(int index, long excludedTagMask){
+    return (recipeTagMask[index] & excludedTagMask) != 0;
+  }
+
+  /*
+   * Below defines getter
+   */
+
+  /*
+   * @return recipeArray
+   */
+  public List<Recipe> getRecipeArray() {
+    return recipeArray;
+  }
+
+  /*
+   * @return true if the catalog was built with an ingredient tag map
+   */
+  public boolean hasIngredientTag() {
+    return hasIngredientTag;
+  }
+
+  /*
+   * @return recipeDominance, null if buildRecipeDominance() has not been called
+   */
+  public RecipeDominance getRecipeDominance() {
+    return recipeDominance;
+  }
+
+  /*
+   * This method returns the tag mask of any recipe, in the catalog or not
+   * 
+   * @param recipe
+   * @return tag mask of the recipe
+   */
+  public long getRecipeTagMask(Recipe recipe) {
+    long mask = 0;
+    for (Ingredient ig : recipe.getIngredientArray()){
+      Long itemMask = itemTagMaskMap.get(ig.getItem());
+      if (null != itemMask){
+        mask |= itemMask;
+      }
+    }
+    return mask;
+  }
+
+  /*
+   * @param index - position of the recipe in the recipe array
+   * @return tag mask of the recipe
+   */
+  public long getRecipeTagMask(int index) {
+    return recipeTagMask[index];
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * This class finds the recipes that are variants of another recipe, so SearchRecipe can skip
+ * them once the simpler recipe is found to be missing an ingredient.
+ * 
+ * Recipe S dominates recipe V if every item S needs is also needed by V, in the same or a larger amount,
+ * e.g. "cheese on toast" (bread 2, cheese 2) dominates "cheese and ham toast" (bread 2, cheese 3, ham 1).
+ * If the fridge does not have enough for S, it does not have enough for V either, since SearchRecipe
+ * compares each ingredient with the combined amount of its item.  When S and V need exactly the same,
+ * the one that comes first in the recipe array dominates the other.
+ * 
+ * The recipes and the dominance relation form a DAG.  Only the edges from each recipe to its closest
+ * dominators are kept (the transitive reduction), and every recipe that S dominates can be reached from S.
+ * The recipes are also sorted in an order where every recipe comes after the recipes that dominate it,
+ * which is the order SearchRecipe checks them in.
+ * 
+ * Building the DAG is done once when the recipes are loaded.  For each recipe, the recipes sharing an item
+ * with it are counted through a map in this format <item, positions of the recipes using the item>, so
+ * the time depends on how many recipes share items; it is O(n^2) in the worst case.
+ * 
+ * The class also counts how many recipes were checked and skipped by all the searches using it.
+ */
+package recipefinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author slee
+ */
+public class RecipeDominance {
+  private int[] order;         // Positions of the recipes, every recipe after the recipes that dominate it
+  private int[][] children;    // Positions of the closest recipes each recipe dominates
+  private int edgeCount;
+  private int dominatedCount;  // Number of recipes dominated by at least one other recipe
+  private long buildMillis;
+  
+  // Statistics of the searches using this DAG
+  private AtomicLong searchCount = new AtomicLong();
+  private AtomicLong checkedCount = new AtomicLong();
+  private AtomicLong prunedCount = new AtomicLong();
+  
+  /*
+   * @param recipeArray
+   */
+  public RecipeDominance(List<Recipe> recipeArray){
+    long start = System.currentTimeMillis();
+    final int recipeCount = recipeArray.size();
+    
+    // The amount each recipe needs of each item.  If an item is listed more than once,
+    // SearchRecipe checks each against the combined amount, so the largest amount is what counts.
+    final List<Map<String, Integer>> requiredAmountArray = new ArrayList<Map<String, Integer>>();
+    final long[] totalAmount = new long[recipeCount];
+    Map<String, List<Integer>> itemRecipeIndexMap = new HashMap<String, List<Integer>>();
+    
+    for (int i = 0; i < recipeCount; i++){
+      Map<String, Integer> requiredAmountMap = new HashMap<String, Integer>();
+      for (Ingredient ig : recipeArray.get(i).getIngredientArray()){
+        Integer amount = requiredAmountMap.get(ig.getItem());
+        if (null == amount || amount < ig.getAmount()){
+          requiredAmountMap.put(ig.getItem(), ig.getAmount());
+        }
+      }
+      requiredAmountArray.add(requiredAmountMap);
+      
+      for (Map.Entry<String, Integer> entry : requiredAmountMap.entrySet()){
+        totalAmount[i] += entry.getValue();
+        
+        List<Integer> recipeIndexArray = itemRecipeIndexMap.get(entry.getKey());
+        if (null == recipeIndexArray){
+          recipeIndexArray = new ArrayList<Integer>();
+          itemRecipeIndexMap.put(entry.getKey(), recipeIndexArray);
+        }
+        recipeIndexArray.add(i);
+      }
+    }
+    
+    // A recipe can only be dominated by a recipe with fewer items, or the same items in smaller amounts,
+    // or exactly the same but earlier in the recipe array.  Sorting by these gives the search order.
+    List<Integer> orderArray = new ArrayList<Integer>();
+    for (int i = 0; i < recipeCount; i++){
+      orderArray.add(i);
+    }
+    Collections.sort(orderArray, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer i1, Integer i2) {
+        int size1 = requiredAmountArray.get(i1).size(), size2 = requiredAmountArray.get(i2).size();
+        if (size1 != size2){
+          return size1 < size2 ? -1 : 1;
+        }
+        if (totalAmount[i1] != totalAmount[i2]){
+          return totalAmount[i1] < totalAmount[i2] ? -1 : 1;
+        }
+        return i1.compareTo(i2);
+      }
+    });
+    order = new int[recipeCount];
+    final int[] rank = new int[recipeCount];   // Position of each recipe in order
+    for (int i = 0; i < recipeCount; i++){
+      order[i] = orderArray.get(i);
+      rank[order[i]] = i;
+    }
+    
+    // Find the dominators of each recipe, then keep only the closest ones.  The recipes are visited in the
+    // search order, so the closest dominators of every dominator are already known when they are needed.
+    List<List<Integer>> parentArray = new ArrayList<List<Integer>>();
+    List<List<Integer>> childArray = new ArrayList<List<Integer>>();
+    for (int i = 0; i < recipeCount; i++){
+      parentArray.add(new ArrayList<Integer>());
+      childArray.add(new ArrayList<Integer>());
+    }
+    int[] coveredCount = new int[recipeCount];   // Number of items of a recipe covered by the current recipe
+    Comparator<Integer> lastInOrderFirst = new Comparator<Integer>() {
+      @Override
+      public int compare(Integer i1, Integer i2) {
+        return rank[i2] - rank[i1];
+      }
+    };
+    
+    for (int v : order){
+      Map<String, Integer> requiredAmountMap = requiredAmountArray.get(v);
+      
+      // Count, for every recipe sharing an item with v, the items it needs no more of than v does
+      List<Integer> touchedArray = new ArrayList<Integer>();
+      for (Map.Entry<String, Integer> entry : requiredAmountMap.entrySet()){
+        for (int s : itemRecipeIndexMap.get(entry.getKey())){
+          if (s != v && requiredAmountArray.get(s).get(entry.getKey()) <= entry.getValue()){
+            if (coveredCount[s] == 0){
+              touchedArray.add(s);
+            }
+            coveredCount[s]++;
+          }
+        }
+      }
+      
+      // s dominates v if all of its items are covered and it comes before v in the search order
+      List<Integer> dominatorArray = new ArrayList<Integer>();
+      for (int s : touchedArray){
+        if (coveredCount[s] == requiredAmountArray.get(s).size() && rank[s] < rank[v]){
+          dominatorArray.add(s);
+        }
+        coveredCount[s] = 0;
+      }
+      
+      // Keep the closest dominators: go from the last in the search order, and skip a dominator
+      // that dominates one already kept
+      Collections.sort(dominatorArray, lastInOrderFirst);
+      Set<Integer> ancestorSet = new HashSet<Integer>();
+      for (int s : dominatorArray){
+        if (!ancestorSet.contains(s)){
+          parentArray.get(v).add(s);
+          childArray.get(s).add(v);
+          edgeCount++;
+          addAncestors(s, parentArray, ancestorSet);
+        }
+      }
+      if (!dominatorArray.isEmpty()){
+        dominatedCount++;
+      }
+    }
+    
+    children = new int[recipeCount][];
+    for (int i = 0; i < recipeCount; i++){
+      List<Integer> childIndexArray = childArray.get(i);
+      children[i] = new int[childIndexArray.size()];
+      for (int j = 0; j < children[i].length; j++){
+        children[i][j] = childIndexArray.get(j);
+      }
+    }
+    
+    buildMillis = System.currentTimeMillis() - start;
+  }
+  
+  /*
+   * This method adds all the recipes that dominate s to ancestorSet
+   * 
+   * @param s
+   * @param parentArray
+   * @param ancestorSet
+   */
+  private static void addAncestors(int s, List<List<Integer>> parentArray, Set<Integer> ancestorSet){
+    List<Integer> stack = new ArrayList<Integer>();
+    stack.add(s);
+    while (!stack.isEmpty()){
+      for (int parent : parentArray.get(stack.remove(stack.size() - 1))){
+        if (ancestorSet.add(parent)){
+          stack.add(parent);
+        }
+      }
+    }
+  }
+  
+  /*
+   * This method marks every recipe dominated by recipe s as pruned, and returns the number of
+   * recipes newly marked.  A recipe already marked was reached from another recipe, so everything
+   * it dominates is marked too.
+   * 
+   * @param s
+   * @param pruned - indexed by recipe position
+   * @return number of recipes newly marked
+   */
+  int prune(int s, boolean[] pruned){
+    int count = 0;
+    List<Integer> stack = new ArrayList<Integer>();
+    stack.add(s);
+    while (!stack.isEmpty()){
+      for (int child : children[stack.remove(stack.size() - 1)]){
+        if (!pruned[child]){
+          pruned[child] = true;
+          count++;
+          stack.add(child);
+        }
+      }
+    }
+    return count;
+  }
+  
+  /*
+   * This method adds the statistics of one search
+   * 
+   * @param checked - number of recipes compared with the fridge
+   * @param skipped - number of recipes skipped because a dominating recipe failed
+   */
+  void addSearch(int checked, int skipped){
+    searchCount.incrementAndGet();
+    checkedCount.addAndGet(checked);
+    prunedCount.addAndGet(skipped);
+  }
+
+  /*
+   * Below defines getter
+   */
+
+  /*
+   * @return order
+   */
+  int[] getOrder() {
+    return order;
+  }
+
+  /*
+   * @return edgeCount - number of edges in the DAG
+   */
+  public int getEdgeCount() {
+    return edgeCount;
+  }
+
+  /*
+   * @return dominatedCount - number of recipes dominated by at least one other recipe
+   */
+  public int getDominatedCount() {
+    return dominatedCount;
+  }
+
+  /*
+   * @return buildMillis - time to build the DAG
+   */
+  public long getBuildMillis() {
+    return buildMillis;
+  }
+
+  /*
+   * @return searchCount
+   */
+  public long getSearchCount() {
+    return searchCount.get();
+  }
+
+  /*
+   * @return checkedCount - number of recipes compared with the fridge by all the searches
+   */
+  public long getCheckedCount() {
+    return checkedCount.get();
+  }
+
+  /*
+   * @return prunedCount - number of recipes skipped by all the searches
+   */
+  public long getPrunedCount() {
+    return prunedCount.get();
+  }
+
+  @Override
+  public String toString() {
+    return "recipes: " + order.length + ", dominated: " + dominatedCount + ", edges: " + edgeCount
+         + ", build: " + buildMillis + "ms, searches: " + searchCount.get()
+         + ", checked: " + checkedCount.get() + ", pruned: " + prunedCount.get();
+  }
+}
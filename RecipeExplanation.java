@@ -0,0 +1,91 @@
+/*
+ * This class stores why a single recipe was accepted or rejected by SearchRecipe
+ */
+package recipefinder;
+
+import java.util.Date;
+
+/**
+ *
+ * @author slee
+ */
+public class RecipeExplanation {
+  private Recipe recipe;
+  private MatchOutcome outcome;
+  private Ingredient failedIngredient;  // The first ingredient that failed, null if the recipe matched
+  private int availableAmount;          // Combined amount of failedIngredient in the fridge
+  private Date useBy;                   // The minimum useBy date of the recipe, null if the recipe did not match
+
+  /*
+   * @param recipe
+   * @param outcome
+   * @param failedIngredient
+   * @param availableAmount
+   * @param useBy
+   */
+  public RecipeExplanation(Recipe recipe, MatchOutcome outcome, Ingredient failedIngredient, int availableAmount, Date useBy){
+    this.recipe = recipe;
+    this.outcome = outcome;
+    this.failedIngredient = failedIngredient;
+    this.availableAmount = availableAmount;
+    this.useBy = useBy;
+  }
+
+  /*
+   * Below defines getter
+   */
+
+  /*
+   * @return recipe
+   */
+  public Recipe getRecipe() {
+    return recipe;
+  }
+
+  /*
+   * @return outcome
+   */
+  public MatchOutcome getOutcome() {
+    return outcome;
+  }
+
+  /*
+   * @return failedIngredient
+   */
+  public Ingredient getFailedIngredient() {
+    return failedIngredient;
+  }
+
+  /*
+   * @return availableAmount
+   */
+  public int getAvailableAmount() {
+    return availableAmount;
+  }
+
+  /*
+   * @return useBy
+   */
+  public Date getUseBy() {
+    return useBy;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(recipe.getName()).append(": ").append(outcome);
+    
+    if (null != failedIngredient){
+      sb.append(" (").append(failedIngredient.getItem())
+        .append(" needs ").append(failedIngredient.getAmount()).append(" ").append(failedIngredient.getUnit());
+      if (MatchOutcome.INSUFFICIENT_AMOUNT == outcome){
+        sb.append(", fridge has ").append(availableAmount);
+      }
+      sb.append(")");
+    }
+    if (null != useBy){
+      sb.append(" use-by ").append(useBy);
+    }
+    return sb.toString();
+  }
+}
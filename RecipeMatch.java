@@ -0,0 +1,65 @@
+/*
+ * This class stores a recipe that has all its ingredients in the fridge, together with
+ * its position in the recipe array and the minimum useBy date of its ingredients.
+ * 
+ * Matches are ordered the same way SearchRecipe.search() picks a recipe: the smallest useBy
+ * date first, and for the same date the recipe that comes first in the recipe array.
+ */
+package recipefinder;
+
+import java.util.Date;
+
+/**
+ *
+ * @author slee
+ */
+public class RecipeMatch implements Comparable<RecipeMatch> {
+  private String name;
+  private int index;     // Position of the recipe in the recipe array
+  private Date useBy;
+
+  /*
+   * @param name
+   * @param index
+   * @param useBy
+   */
+  public RecipeMatch(String name, int index, Date useBy){
+    this.name = name;
+    this.index = index;
+    this.useBy = useBy;
+  }
+
+  @Override
+  public int compareTo(RecipeMatch other) {
+    int compairedResult = useBy.compareTo(other.useBy);
+    if (compairedResult != 0){
+      return compairedResult;
+    }
+    return index < other.index ? -1 : (index == other.index ? 0 : 1);
+  }
+
+  /*
+   * Below defines getter
+   */
+
+  /*
+   * @return name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /*
+   * @return index
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /*
+   * @return useBy
+   */
+  public Date getUseBy() {
+    return useBy;
+  }
+}
@@ -8,6 +8,9 @@
  * data is to be passed in, instead of reading from a file, the 2nd getRecipe method
  * can be used directly.
  * 
+ * A 3rd getRecipe method reads only one shard of the recipes (see RecipeShardWorker).  It parses the
+ * file as a stream, one recipe at a time, so the recipes of other shards are never all in memory.
+ * 
  * This class uses json-simple-1.1.1.jar which can be downloaded here 
  * https://code.google.com/p/json-simple/
  */
@@ -16,11 +19,13 @@ package recipefinder;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
 import org.json.simple.parser.JSONParser;
 
 /**
@@ -76,18 +81,64 @@ public class RecipeReader {
     
     //Loop through the whole json array; for each recipe build the recipe array
     for (Object recipeObject : jsonRecipeArray){
-      JSONObject jsonRecipeObject = (JSONObject) recipeObject;
+      recipeArray.add(buildRecipe((JSONObject) recipeObject));
+    }
+    return recipeArray;
+  }
+  
+  /*
+   * This method reads the json recipe file and returns only the recipes in the given shard,
+   * as decided by RecipeShardWorker.getShard().  The position of each returned recipe in the
+   * whole file is added to recipeIndexArray.
+   * 
+   * The file is parsed with a ContentHandler, which gets the json values as they are read.  Each recipe
+   * object is built, kept if it is in the shard and otherwise dropped, before the next one is read.
+   * 
+   * @param recipeJsonFilePath
+   * @param shardIndex
+   * @param shardCount
+   * @param recipeIndexArray - the positions of the returned recipes are added to it
+   * @return recipeArray
+   */
+  public List<Recipe> getRecipe(String recipeJsonFilePath, int shardIndex, int shardCount, List<Integer> recipeIndexArray){
+    RecipeShardHandler handler = new RecipeShardHandler(shardIndex, shardCount, recipeIndexArray);
+    
+    JSONParser parser = new JSONParser();
 
-      String name = (String) jsonRecipeObject.get(Recipe.NAME); //Recipe name
+    try {
+      //Read json recipe file, one recipe at a time
+      FileReader reader = new FileReader(recipeJsonFilePath);
+      parser.parse(reader, handler);
+      reader.close();
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error reading file " + recipeJsonFilePath);
+      System.exit(4);
+    } catch (org.json.simple.parser.ParseException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error pasring json at position " + parser.getPosition());
+      System.out.println(parser);
+      System.exit(5);
+    }
+    
+    return handler.recipeArray;
+  }
+  
+  /*
+   * This method returns the recipe for the given jsonRecipeObject
+   * 
+   * @param jsonRecipeObject
+   * @return recipe
+   */
+  private Recipe buildRecipe(JSONObject jsonRecipeObject){
+    String name = (String) jsonRecipeObject.get(Recipe.NAME); //Recipe name
 
-      JSONArray jsonIngredientArray = (JSONArray) jsonRecipeObject.get(Recipe.INGREDIENTS); //Recipe ingredient
-      List<Ingredient> ingredientArray = buildIngredientArray(jsonIngredientArray);
+    JSONArray jsonIngredientArray = (JSONArray) jsonRecipeObject.get(Recipe.INGREDIENTS); //Recipe ingredient
+    List<Ingredient> ingredientArray = buildIngredientArray(jsonIngredientArray);
 
-      Recipe recipe = new Recipe(name);
-      recipe.setIngredientArray(ingredientArray);
-      recipeArray.add(recipe);
-    }
-    return recipeArray;
+    Recipe recipe = new Recipe(name);
+    recipe.setIngredientArray(ingredientArray);
+    return recipe;
   }
 
   /*
@@ -125,4 +176,110 @@ public class RecipeReader {
     return ingredientArray;
   }
   
+  
+  /*
+   * This class builds the json values from the parser events.  Each object in the top level array is
+   * a recipe; when one is complete it is turned into a Recipe and kept only if it is in the shard.
+   */
+  private class RecipeShardHandler implements ContentHandler {
+    private int shardIndex;
+    private int shardCount;
+    private List<Integer> recipeIndexArray;
+    private List<Recipe> recipeArray = new ArrayList<Recipe>();
+    
+    private int recipeCount;                                     // Number of recipes read so far
+    private LinkedList<Object> valueStack = new LinkedList<Object>();  // The json objects and arrays being built
+    private LinkedList<String> keyStack = new LinkedList<String>();    // The keys of the object entries being built
+    
+    /*
+     * @param shardIndex
+     * @param shardCount
+     * @param recipeIndexArray
+     */
+    RecipeShardHandler(int shardIndex, int shardCount, List<Integer> recipeIndexArray){
+      this.shardIndex = shardIndex;
+      this.shardCount = shardCount;
+      this.recipeIndexArray = recipeIndexArray;
+    }
+    
+    @Override
+    public void startJSON() {
+    }
+
+    @Override
+    public void endJSON() {
+    }
+
+    @Override
+    public boolean startObject() {
+      valueStack.push(new JSONObject());
+      return true;
+    }
+
+    @Override
+    public boolean endObject() {
+      JSONObject jsonObject = (JSONObject) valueStack.pop();
+      
+      if (valueStack.size() == 1){
+        // A complete recipe in the top level array: keep it if it is in the shard, and drop the json
+        Recipe recipe = buildRecipe(jsonObject);
+        if (RecipeShardWorker.getShard(recipe, shardCount) == shardIndex){
+          recipeArray.add(recipe);
+          recipeIndexArray.add(recipeCount);
+        }
+        recipeCount++;
+      }else{
+        addValue(jsonObject);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean startObjectEntry(String key) {
+      keyStack.push(key);
+      return true;
+    }
+
+    @Override
+    public boolean endObjectEntry() {
+      keyStack.pop();
+      return true;
+    }
+
+    @Override
+    public boolean startArray() {
+      valueStack.push(new JSONArray());
+      return true;
+    }
+
+    @Override
+    public boolean endArray() {
+      JSONArray jsonArray = (JSONArray) valueStack.pop();
+      if (!valueStack.isEmpty()){
+        addValue(jsonArray);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean primitive(Object value) {
+      addValue(value);
+      return true;
+    }
+    
+    /*
+     * This method adds a complete value to the object or array being built
+     * 
+     * @param value
+     */
+    @SuppressWarnings("unchecked")
+    private void addValue(Object value){
+      Object parent = valueStack.peek();
+      if (parent instanceof JSONObject){
+        ((JSONObject) parent).put(keyStack.peek(), value);
+      }else if (parent instanceof JSONArray){
+        ((JSONArray) parent).add(value);
+      }
+    }
+  }
 }
@@ -0,0 +1,357 @@
+/*
+ * This class is a worker process that holds one shard of the recipe array and searches it
+ * for the combined fridge items sent by ShardedSearchRecipe.
+ * 
+ * Recipes are assigned to shards by the hash of the recipe name, so every worker can read the same
+ * recipe json file and keep only its own recipes.  main() streams the file (see RecipeReader), so the
+ * recipes of other shards are dropped as they are read.  Each recipe keeps its position in the full recipe
+ * array, which is used to break ties between recipes with the same useBy date the same way
+ * SearchRecipe.search() does.
+ * 
+ * The worker listens on the loopback address.  One request is handled per connection, in this
+ * line based format:
+ * 
+ *   request  - SEARCH <topK> [tag,tag,...]  (optional tags to exclude, see RecipeCatalog)
+ *              item,amount,unit,useBy   (one line per combined fridge item, useBy in milliseconds)
+ *              END
+ *   response - index,useBy,name         (one line per matched recipe, at most topK, best first)
+ *              END
+ *              or ERROR <message>       if the request cannot be served, e.g. tags to exclude but no tag file
+ * 
+ * Usage: java -cp recipeFinder.jar recipefinder.RecipeShardWorker <recipes.json> <shardIndex> <shardCount> [port [tags.json]]
+ * 
+ * The ingredient tag file is the one read by IngredientTagReader.  It is needed to exclude recipes by tag.
+ * 
+ * Once the worker is ready it prints "LISTENING <port>", which is how ShardedSearchRecipe finds the
+ * port of a worker it has started.
+ */
+package recipefinder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *
+ * @author slee
+ */
+public class RecipeShardWorker {
+  // Define protocol constants
+  public final static String LISTENING = "LISTENING";
+  public final static String SEARCH = "SEARCH";
+  public final static String END = "END";
+  public final static String ERROR = "ERROR";
+  public final static String SPLITTER = ",";
+  public final static String CHARSET = "UTF-8";
+  
+  private List<Recipe> recipeArray;                                 // Recipes in this shard
+  private List<Integer> recipeIndexArray;                           // Position of each recipe in the full recipe array
+  private long[] recipeTagMaskArray;                                // Tag mask of each recipe in this shard
+  private RecipeCatalog tagCatalog;                                 // The tags only, to work out the mask of a request
+  private SearchRecipe searchRecipe = new SearchRecipe();
+  
+  private ServerSocket serverSocket;
+  private ExecutorService executor;
+  private Thread acceptThread;
+  
+  /*
+   * @param allRecipeArray - the full recipe array, only the recipes in this shard are kept
+   * @param shardIndex
+   * @param shardCount
+   */
+  public RecipeShardWorker(List<Recipe> allRecipeArray, int shardIndex, int shardCount){
+    this(allRecipeArray, null, shardIndex, shardCount);
+  }
+  
+  /*
+   * @param allRecipeArray - the full recipe array, only the recipes in this shard are kept
+   * @param ingredientTagMap - in this format <item, tags>; null if there is no ingredient tag file
+   * @param shardIndex
+   * @param shardCount
+   */
+  public RecipeShardWorker(List<Recipe> allRecipeArray, Map<String, List<String>> ingredientTagMap,
+                           int shardIndex, int shardCount){
+    List<Recipe> shardRecipeArray = new ArrayList<Recipe>();
+    List<Integer> shardRecipeIndexArray = new ArrayList<Integer>();
+    for (int i = 0; i < allRecipeArray.size(); i++){
+      Recipe recipe = allRecipeArray.get(i);
+      if (getShard(recipe, shardCount) == shardIndex){
+        shardRecipeArray.add(recipe);
+        shardRecipeIndexArray.add(i);
+      }
+    }
+    init(shardRecipeArray, shardRecipeIndexArray, ingredientTagMap);
+  }
+  
+  /*
+   * @param shardRecipeArray - the recipes in this shard only, e.g. from RecipeReader
+   * @param recipeIndexArray - position of each recipe in the full recipe array
+   * @param ingredientTagMap - in this format <item, tags>; null if there is no ingredient tag file
+   */
+  public RecipeShardWorker(List<Recipe> shardRecipeArray, List<Integer> recipeIndexArray,
+                           Map<String, List<String>> ingredientTagMap){
+    init(shardRecipeArray, recipeIndexArray, ingredientTagMap);
+  }
+  
+  /*
+   * This method keeps the recipes in this shard and works out their tag masks.
+   * Only the masks of this shard are kept, in the same order as recipeIndexArray.
+   * 
+   * @param shardRecipeArray
+   * @param recipeIndexArray
+   * @param ingredientTagMap
+   */
+  private void init(List<Recipe> shardRecipeArray, List<Integer> recipeIndexArray,
+                    Map<String, List<String>> ingredientTagMap){
+    if (shardRecipeArray.size() != recipeIndexArray.size()){
+      throw new IllegalArgumentException("Expected " + shardRecipeArray.size() + " recipe indexes, got " + recipeIndexArray.size());
+    }
+    this.recipeArray = shardRecipeArray;
+    this.recipeIndexArray = recipeIndexArray;
+    this.tagCatalog = new RecipeCatalog(ingredientTagMap);
+    
+    recipeTagMaskArray = new long[shardRecipeArray.size()];
+    for (int i = 0; i < shardRecipeArray.size(); i++){
+      recipeTagMaskArray[i] = tagCatalog.getRecipeTagMask(shardRecipeArray.get(i));
+    }
+  }
+
+  /**
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {
+    if (args.length < 3 || args.length > 5){
+      System.out.println("Usage: RecipeShardWorker <recipes.json> <shardIndex> <shardCount> [port [tags.json]]");
+      System.exit(1);
+    }
+    
+    int shardIndex = Integer.parseInt(args[1]);
+    int shardCount = Integer.parseInt(args[2]);
+    int port = args.length >= 4 ? Integer.parseInt(args[3]) : 0;
+    
+    // Read only the recipes in this shard
+    RecipeReader recipeReader = new RecipeReader();
+    List<Integer> recipeIndexArray = new ArrayList<Integer>();
+    List<Recipe> shardRecipeArray = recipeReader.getRecipe(args[0], shardIndex, shardCount, recipeIndexArray);
+    
+    Map<String, List<String>> ingredientTagMap = null;   // No tag file: requests excluding tags are refused
+    if (args.length == 5){
+      IngredientTagReader ingredientTagReader = new IngredientTagReader();
+      ingredientTagMap = ingredientTagReader.getIngredientTag(args[4]);
+    }
+    
+    RecipeShardWorker worker = new RecipeShardWorker(shardRecipeArray, recipeIndexArray, ingredientTagMap);
+    try {
+      port = worker.start(port);
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+      System.out.println("Error listening on port " + port);
+      System.exit(10);
+    }
+    
+    System.out.println(LISTENING + " " + port);
+    System.out.flush();
+    
+    // Serve until the process is stopped
+    try {
+      worker.acceptThread.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+  
+  /*
+   * This method returns the shard of a recipe, using the hash of the recipe name.
+   * String.hashCode() is defined by the Java spec, so all the processes agree on the shard.
+   * 
+   * @param recipe
+   * @param shardCount
+   * @return shardIndex
+   */
+  public static int getShard(Recipe recipe, int shardCount){
+    return (recipe.getName().hashCode() & Integer.MAX_VALUE) % shardCount;
+  }
+  
+  /*
+   * This method starts listening on the loopback address and returns the port.
+   * Pass in 0 to listen on any free port.
+   * 
+   * @param port
+   * @return port
+   * @throws IOException
+   */
+  public int start(int port) throws IOException {
+    serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    executor = Executors.newCachedThreadPool();
+    
+    acceptThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (!serverSocket.isClosed()){
+          try {
+            final Socket socket = serverSocket.accept();
+            try {
+              executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                  handle(socket);
+                }
+              });
+            } catch (RejectedExecutionException ex) {
+              // Accepted while stop() was closing the server socket; close it so the coordinator is not left waiting
+              socket.close();
+            }
+          } catch (IOException ex) {
+            // The server socket has been closed by stop()
+          }
+        }
+      }
+    }, "RecipeShardWorker-" + serverSocket.getLocalPort());
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+    
+    return serverSocket.getLocalPort();
+  }
+  
+  /*
+   * This method stops listening
+   */
+  public void stop(){
+    try {
+      serverSocket.close();
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.WARNING, null, ex);
+    }
+    executor.shutdown();
+  }
+  
+  /*
+   * This method returns up to topK recipes in this shard with all the ingredients in
+   * combinedFridgeIngredientMap, best first.
+   * 
+   * @param combinedFridgeIngredientMap
+   * @param topK
+   * @return recipeMatchArray
+   */
+  public List<RecipeMatch> search(Map<String, FridgeIngredient> combinedFridgeIngredientMap, int topK){
+    return search(combinedFridgeIngredientMap, topK, null);
+  }
+  
+  /*
+   * This method is the same as above, but skips the recipes with any of the excludedTags
+   * 
+   * @param combinedFridgeIngredientMap
+   * @param topK
+   * @param excludedTags - can be null or empty
+   * @return recipeMatchArray
+   */
+  public List<RecipeMatch> search(Map<String, FridgeIngredient> combinedFridgeIngredientMap, int topK,
+                                  Collection<String> excludedTags){
+    long excludedTagMask = tagCatalog.getTagMask(excludedTags);
+
+    // Keep the topK best matches, with the worst of them at the head of the queue.
+    // The queue never holds more than the recipes in this shard, however large topK is.
+    PriorityQueue<RecipeMatch> bestMatchQueue = new PriorityQueue<RecipeMatch>(Math.max(1, Math.min(topK, recipeArray.size())),
+                                                                               Collections.reverseOrder());
+    
+    for (int i = 0; i < recipeArray.size(); i++){
+      // Skip the recipe if it has any excluded tag
+      if ((recipeTagMaskArray[i] & excludedTagMask) != 0){
+        continue;
+      }
+      
+      Recipe recipe = recipeArray.get(i);
+      Date recipeDate = searchRecipe.getMinDateFromRecipe(combinedFridgeIngredientMap, recipe.getIngredientArray());
+      
+      if (SearchRecipe.isMatch(recipeDate)){
+        RecipeMatch recipeMatch = new RecipeMatch(recipe.getName(), recipeIndexArray.get(i), recipeDate);
+        if (bestMatchQueue.size() < topK){
+          bestMatchQueue.add(recipeMatch);
+        }else if (recipeMatch.compareTo(bestMatchQueue.peek()) < 0){
+          bestMatchQueue.poll();
+          bestMatchQueue.add(recipeMatch);
+        }
+      }
+    }
+    
+    List<RecipeMatch> recipeMatchArray = new ArrayList<RecipeMatch>(bestMatchQueue);
+    Collections.sort(recipeMatchArray);
+    return recipeMatchArray;
+  }
+  
+  /*
+   * This method handles one request on the socket
+   * 
+   * @param socket
+   */
+  private void handle(Socket socket){
+    try {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), CHARSET));
+      PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), CHARSET));
+      
+      // Read the request
+      String line = reader.readLine();
+      if (null == line || !line.startsWith(SEARCH + " ")){
+        throw new IOException("Unexpected request: " + line);
+      }
+      String[] header = line.split(" ", 3);
+      int topK = Integer.parseInt(header[1]);
+      List<String> excludedTags = header.length == 3 ? Arrays.asList(header[2].split(SPLITTER)) : null;
+      
+      Map<String, FridgeIngredient> combinedFridgeIngredientMap = new HashMap<String, FridgeIngredient>();
+      while (null != (line = reader.readLine()) && !END.equals(line)){
+        String[] fields = line.split(SPLITTER);
+        FridgeIngredient fi = new FridgeIngredient(fields[0], Integer.parseInt(fields[1]), Unit.valueOf(fields[2]),
+                                                   new Date(Long.parseLong(fields[3])));
+        combinedFridgeIngredientMap.put(fi.getItem(), fi);
+      }
+      
+      // Write the response
+      List<RecipeMatch> recipeMatchArray;
+      try {
+        recipeMatchArray = search(combinedFridgeIngredientMap, topK, excludedTags);
+      } catch (IllegalArgumentException ex) {
+        // Refuse rather than return recipes that may have the excluded tags
+        Logger.getLogger(RecipeFinder.class.getName()).log(Level.WARNING, ex.getMessage());
+        writer.println(ERROR + " " + ex.getMessage());
+        writer.flush();
+        return;
+      }
+      for (RecipeMatch recipeMatch : recipeMatchArray){
+        writer.println(recipeMatch.getIndex() + SPLITTER + recipeMatch.getUseBy().getTime() + SPLITTER + recipeMatch.getName());
+      }
+      writer.println(END);
+      writer.flush();
+    } catch (IOException ex) {
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+    } catch (RuntimeException ex) {
+      // Bad request, e.g. a number or unit that cannot be parsed; the coordinator sees the connection close
+      Logger.getLogger(RecipeFinder.class.getName()).log(Level.SEVERE, null, ex);
+    } finally {
+      try {
+        socket.close();
+      } catch (IOException ex) {
+        Logger.getLogger(RecipeFinder.class.getName()).log(Level.WARNING, null, ex);
+      }
+    }
+  }
+}
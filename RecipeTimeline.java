@@ -0,0 +1,111 @@
+/*
+ * This class stores the recipe SearchRecipe would return for every date between a from date
+ * and a to date, if nothing is cooked or added to the fridge in between.
+ * 
+ * The recipe can only change when a fridge item expires, so the timeline is stored as periods:
+ * each period has a start date and the recipe from that date until the start of the next period
+ * (or the to date for the last period).  The recipe is null when there is no recipe, i.e. "Order Takeout".
+ */
+package recipefinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ *
+ * @author slee
+ */
+public class RecipeTimeline {
+  private Date fromDate;
+  private Date toDate;
+  private List<Date> startDateArray = new ArrayList<Date>();   // Start date of each period, in order
+  private List<Recipe> recipeArray = new ArrayList<Recipe>();  // Recipe of each period, can be null
+  
+  /*
+   * @param fromDate
+   * @param toDate
+   */
+  public RecipeTimeline(Date fromDate, Date toDate){
+    this.fromDate = fromDate;
+    this.toDate = toDate;
+  }
+  
+  /*
+   * This method adds a period.  Periods must be added in order of startDate; a period with the
+   * same recipe as the last one is merged into it.
+   * 
+   * @param startDate
+   * @param recipe
+   */
+  void addPeriod(Date startDate, Recipe recipe){
+    if (!recipeArray.isEmpty() && recipeArray.get(recipeArray.size() - 1) == recipe){
+      return;
+    }
+    startDateArray.add(startDate);
+    recipeArray.add(recipe);
+  }
+  
+  /*
+   * This method returns the recipe for someDate, or null if there is no recipe.
+   * someDate must be between the from date and the to date.
+   * 
+   * @param someDate
+   * @return recipe
+   */
+  public Recipe getRecipe(Date someDate){
+    if (someDate.before(fromDate) || someDate.after(toDate)){
+      throw new IllegalArgumentException("Date is outside of the timeline: " + someDate);
+    }
+    
+    // Find the last period starting on or before someDate
+    int index = Collections.binarySearch(startDateArray, someDate);
+    if (index < 0){
+      index = -index - 2;
+    }
+    return recipeArray.get(index);
+  }
+
+  /*
+   * Below defines getter
+   */
+
+  /*
+   * @return fromDate
+   */
+  public Date getFromDate() {
+    return fromDate;
+  }
+
+  /*
+   * @return toDate
+   */
+  public Date getToDate() {
+    return toDate;
+  }
+
+  /*
+   * @return startDateArray
+   */
+  public List<Date> getStartDateArray() {
+    return Collections.unmodifiableList(startDateArray);
+  }
+
+  /*
+   * @return recipeArray
+   */
+  public List<Recipe> getRecipeArray() {
+    return Collections.unmodifiableList(recipeArray);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < startDateArray.size(); i++){
+      sb.append(startDateArray.get(i)).append(": ")
+        .append(null == recipeArray.get(i) ? "Order Takeout" : recipeArray.get(i).getName()).append("\n");
+    }
+    return sb.toString();
+  }
+}
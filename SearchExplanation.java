@@ -0,0 +1,216 @@
+/*
+ * This class collects the explanation of a recipe search, i.e. why each recipe
+ * was accepted or rejected, together with aggregate counts for the search.
+ * 
+ * An instance is passed into SearchRecipe.search() to turn explain mode on.
+ * When no instance is passed in, SearchRecipe does not do any of the extra work.
+ * 
+ * By default every recipe is explained.  To only explain a few recipes, e.g. the one
+ * a user is asking about, pass in the recipe names to the constructor.  The aggregate
+ * counts always cover all the recipes.
+ * 
+ * An instance is meant to be used for one search only.
+ */
+package recipefinder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * @author slee
+ */
+public class SearchExplanation {
+  private Set<String> recipeNames;     // Names of the recipes to explain, null to explain all
+  private Set<String> expiredItems = new HashSet<String>();
+  private List<RecipeExplanation> recipeExplanationArray = new ArrayList<RecipeExplanation>();
+  private Map<MatchOutcome, Integer> outcomeCount = new EnumMap<MatchOutcome, Integer>(MatchOutcome.class);
+  
+  private int fridgeItemCount;
+  private int expiredFridgeItemCount;
+  private int combinedItemCount;
+  private int recipeCount;
+  private int prunedRecipeCount;   // Recipes skipped because a recipe dominating them failed
+  
+  private Recipe recipe;   // The recipe returned by the search
+  private Date useBy;      // The minimum useBy date of the returned recipe
+
+  /*
+   * Explain all the recipes
+   */
+  public SearchExplanation(){
+    this.recipeNames = null;
+  }
+
+  /*
+   * Only explain the recipes with the given names
+   * 
+   * @param recipeNames
+   */
+  public SearchExplanation(Collection<String> recipeNames){
+    this.recipeNames = new HashSet<String>(recipeNames);
+  }
+
+  /*
+   * Below defines methods called by SearchRecipe to record the search
+   */
+
+  /*
+   * @param fi
+   * @param expired
+   */
+  void addFridgeIngredient(FridgeIngredient fi, boolean expired){
+    fridgeItemCount++;
+    if (expired){
+      expiredFridgeItemCount++;
+      expiredItems.add(fi.getItem());
+    }
+  }
+
+  /*
+   * @param combinedItemCount
+   */
+  void setCombinedItemCount(int combinedItemCount){
+    this.combinedItemCount = combinedItemCount;
+  }
+
+  /*
+   * @param item
+   * @return true if the fridge has at least one expired item with this name
+   */
+  boolean hasExpiredItem(String item){
+    return expiredItems.contains(item);
+  }
+
+  /*
+   * Records the outcome of a recipe.  The recipe explanation is only kept if the
+   * recipe is one to be explained.
+   * 
+   * @param recipeExplanation
+   */
+  void addRecipeExplanation(RecipeExplanation recipeExplanation){
+    recipeCount++;
+    
+    MatchOutcome outcome = recipeExplanation.getOutcome();
+    Integer count = outcomeCount.get(outcome);
+    outcomeCount.put(outcome, null == count ? 1 : count + 1);
+    
+    if (null == recipeNames || recipeNames.contains(recipeExplanation.getRecipe().getName())){
+      recipeExplanationArray.add(recipeExplanation);
+    }
+  }
+
+  /*
+   * Records a recipe that is skipped because a recipe dominating it failed (see RecipeDominance).
+   * The reason is still worked out, as explain mode is not meant to be fast.
+   * 
+   * @param recipeExplanation
+   */
+  void addPrunedRecipeExplanation(RecipeExplanation recipeExplanation){
+    prunedRecipeCount++;
+    addRecipeExplanation(recipeExplanation);
+  }
+
+  /*
+   * @param recipe
+   * @param useBy
+   */
+  void setResult(Recipe recipe, Date useBy){
+    this.recipe = recipe;
+    this.useBy = useBy;
+  }
+
+  /*
+   * Below defines getter
+   */
+
+  /*
+   * @return recipeExplanationArray
+   */
+  public List<RecipeExplanation> getRecipeExplanationArray() {
+    return recipeExplanationArray;
+  }
+
+  /*
+   * @param outcome
+   * @return number of recipes with the outcome
+   */
+  public int getOutcomeCount(MatchOutcome outcome) {
+    Integer count = outcomeCount.get(outcome);
+    return null == count ? 0 : count;
+  }
+
+  /*
+   * @return fridgeItemCount
+   */
+  public int getFridgeItemCount() {
+    return fridgeItemCount;
+  }
+
+  /*
+   * @return expiredFridgeItemCount
+   */
+  public int getExpiredFridgeItemCount() {
+    return expiredFridgeItemCount;
+  }
+
+  /*
+   * @return combinedItemCount
+   */
+  public int getCombinedItemCount() {
+    return combinedItemCount;
+  }
+
+  /*
+   * @return recipeCount
+   */
+  public int getRecipeCount() {
+    return recipeCount;
+  }
+
+  /*
+   * @return prunedRecipeCount
+   */
+  public int getPrunedRecipeCount() {
+    return prunedRecipeCount;
+  }
+
+  /*
+   * @return recipe
+   */
+  public Recipe getRecipe() {
+    return recipe;
+  }
+
+  /*
+   * @return useBy
+   */
+  public Date getUseBy() {
+    return useBy;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("fridge items: ").append(fridgeItemCount)
+      .append(", expired: ").append(expiredFridgeItemCount)
+      .append(", combined: ").append(combinedItemCount).append("\n");
+    sb.append("recipes: ").append(recipeCount);
+    for (MatchOutcome outcome : MatchOutcome.values()){
+      sb.append(", ").append(outcome).append(": ").append(getOutcomeCount(outcome));
+    }
+    sb.append(", pruned: ").append(prunedRecipeCount);
+    sb.append("\n");
+    sb.append("result: ").append(null == recipe ? "none" : recipe.getName()).append("\n");
+    for (RecipeExplanation re : recipeExplanationArray){
+      sb.append("  ").append(re).append("\n");
+    }
+    return sb.toString();
+  }
+}
@@ -19,14 +19,35 @@
  * After combining all the same fridge ingredient, we will end up with a unique ingredient list which can be
  * represented by a map instead of an array for faster comparison to the recipe ingredient, using the item
  * as the key and the value being FridgeIngredient.
+ * 
+ * The search can also be run in explain mode by passing in a SearchExplanation.  In explain mode
+ * the reason each recipe is rejected (missing item, not enough amount or item expired) is recorded,
+ * together with the counts for the whole search.  When no SearchExplanation is passed in, the only
+ * extra work is a null check per fridge item and per recipe.
+ * 
+ * Recipes can be excluded by ingredient tag, e.g. "no nuts, no dairy", by searching a RecipeCatalog.
+ * The excluded tags are turned into a mask once per search, and a recipe with any of them is skipped
+ * with one mask test before its ingredients are compared.
+ * 
+ * timeline() returns the recipe for every date in a date range in one pass, instead of searching
+ * once per date.  The recipe can only change when a fridge item expires, so the fridge items are
+ * kept in a FridgeInventory and, at each distinct useBy date, only the recipes using the items that
+ * expired are matched again.
+ * 
+ * If the RecipeCatalog has a RecipeDominance, the recipes are checked in dominance order and when a
+ * recipe cannot be made, every recipe it dominates is skipped without being checked.  The recipe
+ * returned is the same as checking every recipe.
  */
 package recipefinder;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  *
@@ -44,11 +65,75 @@ public class SearchRecipe {
    * @return recipe
    */
   public Recipe search(List<FridgeIngredient> fridgeIngredientArray, List<Recipe> recipeArray, Date someDate){
+    return search(fridgeIngredientArray, recipeArray, someDate, null);
+  }
+  
+  /*
+   * This method is the same as above, but also records why each recipe is accepted or rejected
+   * in searchExplanation.  Pass in null for searchExplanation to turn explain mode off.
+   * 
+   * @param fridgeIngredientArray
+   * @param recipeArray
+   * @param someDate
+   * @param searchExplanation
+   * @return recipe
+   */
+  public Recipe search(List<FridgeIngredient> fridgeIngredientArray, List<Recipe> recipeArray, Date someDate,
+                       SearchExplanation searchExplanation){
+    return search(fridgeIngredientArray, recipeArray, null, 0, someDate, searchExplanation);
+  }
+  
+  /*
+   * This method returns a Recipe with the smallest useBy date from the recipes in recipeCatalog
+   * that have none of the excludedTags.  If no recipe is found, returns null.
+   * 
+   * @param fridgeIngredientArray
+   * @param recipeCatalog
+   * @param someDate
+   * @param excludedTags - e.g. meat, nuts, dairy; can be null or empty
+   * @return recipe
+   */
+  public Recipe search(List<FridgeIngredient> fridgeIngredientArray, RecipeCatalog recipeCatalog, Date someDate,
+                       Collection<String> excludedTags){
+    return search(fridgeIngredientArray, recipeCatalog, someDate, excludedTags, null);
+  }
+  
+  /*
+   * This method is the same as above, but also records why each recipe is accepted or rejected
+   * in searchExplanation.  Pass in null for searchExplanation to turn explain mode off.
+   * 
+   * @param fridgeIngredientArray
+   * @param recipeCatalog
+   * @param someDate
+   * @param excludedTags - e.g. meat, nuts, dairy; can be null or empty
+   * @param searchExplanation
+   * @return recipe
+   */
+  public Recipe search(List<FridgeIngredient> fridgeIngredientArray, RecipeCatalog recipeCatalog, Date someDate,
+                       Collection<String> excludedTags, SearchExplanation searchExplanation){
+    return search(fridgeIngredientArray, recipeCatalog.getRecipeArray(), recipeCatalog,
+                  recipeCatalog.getTagMask(excludedTags), someDate, searchExplanation);
+  }
+  
+  /*
+   * This method does the search for all the public search methods on a FridgeIngredient array.
+   * 
+   * @param fridgeIngredientArray
+   * @param recipeArray
+   * @param recipeCatalog - holds the tag mask of each recipe, can be null if excludedTagMask is 0
+   * @param excludedTagMask
+   * @param someDate
+   * @param searchExplanation - can be null
+   * @return recipe
+   */
+  private Recipe search(List<FridgeIngredient> fridgeIngredientArray, List<Recipe> recipeArray, RecipeCatalog recipeCatalog,
+                        long excludedTagMask, Date someDate, SearchExplanation searchExplanation){
     Recipe recipe;
     
     // Get FridgeIngredient where its useBy date is equal to or greater than someDate
     // The result will contain only usable FridgeIngredient that have not expired by someDate
-    List<FridgeIngredient> fridgeIngredientFilteredByDate = filterFridgeIngredientByDate(fridgeIngredientArray, someDate);
+    List<FridgeIngredient> fridgeIngredientFilteredByDate = filterFridgeIngredientByDate(fridgeIngredientArray, someDate,
+                                                                                         searchExplanation);
     
     // Fridge items can be duplicated, e.g. bread can have different number of slices with different dates.
     // Therefore, same items need to be combined with the sum of the amount and record the minimum useBy date
@@ -57,21 +142,204 @@ public class SearchRecipe {
     // represented by a map instead of an array for faster comparison to the recipe ingredient, using the item
     // as the key and the value being FridgeIngredient.
     Map<String, FridgeIngredient> combinedFridgeIngredientMap = this.combineFridgeIngredient(fridgeIngredientFilteredByDate);
+    if (null != searchExplanation){
+      searchExplanation.setCombinedItemCount(combinedFridgeIngredientMap.size());
+    }
     
     // Get the recipe with the smallest useBy date from FridgeIngredient
-    recipe = matchRecipe(combinedFridgeIngredientMap, recipeArray);
+    if (null != recipeCatalog && null != recipeCatalog.getRecipeDominance()){
+      recipe = matchRecipe(combinedFridgeIngredientMap, recipeCatalog, excludedTagMask, searchExplanation);
+    }else{
+      recipe = matchRecipe(combinedFridgeIngredientMap, recipeArray, recipeCatalog, excludedTagMask, searchExplanation);
+    }
     return recipe;
   }
   
+  /*
+   * This method returns a Recipe with the smallest useBy date from the batches left in a FridgeInventory
+   * that have not expired by someDate.  The inventory is not changed.
+   * Since the inventory keeps the combined FridgeIngredient map up to date, the fridge items are not
+   * filtered and combined again, unless a batch has expired by someDate.  Call removeExpired() on the
+   * inventory as the date moves on to keep it that way.
+   * If no recipe is found, returns null.
+   * 
+   * @param fridgeInventory
+   * @param recipeArray
+   * @param someDate
+   * @return recipe
+   */
+  public Recipe search(FridgeInventory fridgeInventory, List<Recipe> recipeArray, Date someDate){
+    Map<String, FridgeIngredient> combinedFridgeIngredientMap = fridgeInventory.getCombinedFridgeIngredientMap();
+    if (fridgeInventory.hasExpired(someDate)){
+      // Leave the expired batches in the inventory, and combine the others for this search only
+      combinedFridgeIngredientMap = getCombinedFridgeIngredientMap(fridgeInventory.getFridgeIngredientArray(), someDate);
+    }
+    return matchRecipe(combinedFridgeIngredientMap, recipeArray, null, 0, null);
+  }
+  
+  /*
+   * This method returns the recipe search() would return for every date from fromDate to toDate,
+   * as a RecipeTimeline.
+   * 
+   * @param fridgeIngredientArray
+   * @param recipeArray
+   * @param fromDate
+   * @param toDate
+   * @return recipeTimeline
+   */
+  public RecipeTimeline timeline(List<FridgeIngredient> fridgeIngredientArray, List<Recipe> recipeArray, Date fromDate, Date toDate){
+    return timeline(fridgeIngredientArray, recipeArray, null, 0, fromDate, toDate);
+  }
+  
+  /*
+   * This method is the same as above, but only for the recipes in recipeCatalog
+   * that have none of the excludedTags.
+   * 
+   * @param fridgeIngredientArray
+   * @param recipeCatalog
+   * @param fromDate
+   * @param toDate
+   * @param excludedTags - e.g. meat, nuts, dairy; can be null or empty
+   * @return recipeTimeline
+   */
+  public RecipeTimeline timeline(List<FridgeIngredient> fridgeIngredientArray, RecipeCatalog recipeCatalog, Date fromDate, Date toDate,
+                                 Collection<String> excludedTags){
+    return timeline(fridgeIngredientArray, recipeCatalog.getRecipeArray(), recipeCatalog,
+                    recipeCatalog.getTagMask(excludedTags), fromDate, toDate);
+  }
+  
+  /*
+   * This method does the timeline for the public timeline methods.
+   * 
+   * Implementation notes:
+   * A fridge item with useBy date t can be used up to and including t, so the recipe can only
+   * change just after each distinct useBy date.  The dates are visited in order and at each one:
+   * 1) the expired batches are removed from the FridgeInventory, which updates the combined
+   *    FridgeIngredient map for the items that expired only.
+   * 2) the recipes using those items are matched again.  A recipe that cannot be made stays that way,
+   *    since fridge items are only ever removed.
+   * The recipes that can be made are kept in a TreeSet ordered the same way matchRecipe() picks a
+   * recipe, so the recipe for each period is the first in the set.
+   * 
+   * @param fridgeIngredientArray
+   * @param recipeArray
+   * @param recipeCatalog - holds the tag mask of each recipe, can be null if excludedTagMask is 0
+   * @param excludedTagMask
+   * @param fromDate
+   * @param toDate
+   * @return recipeTimeline
+   */
+  private RecipeTimeline timeline(List<FridgeIngredient> fridgeIngredientArray, List<Recipe> recipeArray, RecipeCatalog recipeCatalog,
+                                  long excludedTagMask, Date fromDate, Date toDate){
+    RecipeTimeline recipeTimeline = new RecipeTimeline(fromDate, toDate);
+    
+    FridgeInventory fridgeInventory = new FridgeInventory(fridgeIngredientArray);
+    fridgeInventory.removeExpired(fromDate);
+    Map<String, FridgeIngredient> combinedFridgeIngredientMap = fridgeInventory.getCombinedFridgeIngredientMap();
+    
+    // The distinct useBy dates within the timeline, in order
+    TreeSet<Date> useByDateSet = new TreeSet<Date>();
+    for (FridgeIngredient fi : fridgeIngredientArray){
+      if (!fi.getUseBy().before(fromDate) && fi.getUseBy().before(toDate)){
+        useByDateSet.add(fi.getUseBy());
+      }
+    }
+    
+    // Match every recipe on fromDate, and build a map in this format <item, positions of the recipes using the item>
+    // for the recipes that can be made
+    RecipeMatch[] recipeMatchArray = new RecipeMatch[recipeArray.size()];
+    TreeSet<RecipeMatch> recipeMatchSet = new TreeSet<RecipeMatch>();
+    Map<String, List<Integer>> itemRecipeIndexMap = new HashMap<String, List<Integer>>();
+    int index = -1;  // Position of rp in recipeArray
+    
+    for (Recipe rp : recipeArray){
+      index++;
+      if (0 != excludedTagMask && recipeCatalog.isExcluded(index, excludedTagMask)){
+        continue;
+      }
+      
+      Date recipeDate = getMinDateFromRecipe(combinedFridgeIngredientMap, rp.getIngredientArray());
+      if (isMatch(recipeDate)){
+        recipeMatchArray[index] = new RecipeMatch(rp.getName(), index, recipeDate);
+        recipeMatchSet.add(recipeMatchArray[index]);
+        
+        for (Ingredient ig : rp.getIngredientArray()){
+          List<Integer> recipeIndexArray = itemRecipeIndexMap.get(ig.getItem());
+          if (null == recipeIndexArray){
+            recipeIndexArray = new ArrayList<Integer>();
+            itemRecipeIndexMap.put(ig.getItem(), recipeIndexArray);
+          }
+          // An item listed twice in the recipe only needs the recipe once
+          if (recipeIndexArray.isEmpty() || recipeIndexArray.get(recipeIndexArray.size() - 1) != index){
+            recipeIndexArray.add(index);
+          }
+        }
+      }
+    }
+    recipeTimeline.addPeriod(fromDate, recipeMatchSet.isEmpty() ? null : recipeArray.get(recipeMatchSet.first().getIndex()));
+    
+    // Sweep the useBy dates
+    for (Date useByDate : useByDateSet){
+      if (recipeMatchSet.isEmpty()){
+        break;  // Nothing left to change
+      }
+      
+      // The items with this useBy date can no longer be used 1 millisecond later
+      Date startDate = new Date(useByDate.getTime() + 1);
+      Set<String> changedItems = fridgeInventory.removeExpired(startDate);
+      
+      // Match the recipes using the changed items again
+      for (String item : changedItems){
+        List<Integer> recipeIndexArray = itemRecipeIndexMap.get(item);
+        if (null == recipeIndexArray){
+          continue;
+        }
+        for (int recipeIndex : recipeIndexArray){
+          if (null == recipeMatchArray[recipeIndex]){
+            continue;  // Already cannot be made
+          }
+          recipeMatchSet.remove(recipeMatchArray[recipeIndex]);
+          
+          Recipe rp = recipeArray.get(recipeIndex);
+          Date recipeDate = getMinDateFromRecipe(combinedFridgeIngredientMap, rp.getIngredientArray());
+          if (!isMatch(recipeDate)){
+            recipeMatchArray[recipeIndex] = null;
+          }else{
+            recipeMatchArray[recipeIndex] = new RecipeMatch(rp.getName(), recipeIndex, recipeDate);
+            recipeMatchSet.add(recipeMatchArray[recipeIndex]);
+          }
+        }
+      }
+      
+      recipeTimeline.addPeriod(startDate, recipeMatchSet.isEmpty() ? null : recipeArray.get(recipeMatchSet.first().getIndex()));
+    }
+    return recipeTimeline;
+  }
+  
+  /*
+   * This method returns the combined FridgeIngredient map for the FridgeIngredient that have not
+   * expired by someDate, i.e. the map search() matches the recipes against.
+   * Used by ShardedSearchRecipe, which sends this map to the recipe shards.
+   * 
+   * @param fridgeIngredientArray
+   * @param someDate
+   * @return combinedFridgeIngredientMap
+   */
+  Map<String, FridgeIngredient> getCombinedFridgeIngredientMap(List<FridgeIngredient> fridgeIngredientArray, Date someDate){
+    return combineFridgeIngredient(filterFridgeIngredientByDate(fridgeIngredientArray, someDate, null));
+  }
+  
   /*
    * This method returns an array of FridgeIngredient where its useBy date is equal to or greater
    * than someDate.
    * 
    * @param fridgeIngredientArray
    * @param someDate
+   * @param searchExplanation - records the expired items, can be null
    * @return fridgeIngredientFilteredByDate
    */
-  private List<FridgeIngredient> filterFridgeIngredientByDate(List<FridgeIngredient> fridgeIngredientArray, Date someDate){
+  private List<FridgeIngredient> filterFridgeIngredientByDate(List<FridgeIngredient> fridgeIngredientArray, Date someDate,
+                                                              SearchExplanation searchExplanation){
     List<FridgeIngredient> fridgeIngredientFilteredByDate = new ArrayList< FridgeIngredient>();
     
     // Loop through the entire FridgeIngredient array and only build the FridgeIngredient
@@ -84,6 +352,10 @@ public class SearchRecipe {
       if (compairedResult > 0 || compairedResult == 0){
         fridgeIngredientFilteredByDate.add(fi);
       }
+      
+      if (null != searchExplanation){
+        searchExplanation.addFridgeIngredient(fi, compairedResult < 0);
+      }
     }
     return fridgeIngredientFilteredByDate;
   }
@@ -155,21 +427,42 @@ public class SearchRecipe {
    * Another alternative is that we can save *all* the recipes in a TreeMap 
    * with a date Comparator, then get the 1st node that contains the recipe.
    * 
+   * Recipes with an excluded tag are skipped before their ingredients are compared.
+   * 
    * @param combinedFridgeIngredientMap
    * @param recipeArray
+   * @param recipeCatalog - holds the tag mask of each recipe, can be null if excludedTagMask is 0
+   * @param excludedTagMask
+   * @param searchExplanation - records the outcome of each recipe, can be null
    * @return recipe
    */
-  private Recipe matchRecipe(Map<String, FridgeIngredient> combinedFridgeIngredientMap, List<Recipe> recipeArray) {
+  private Recipe matchRecipe(Map<String, FridgeIngredient> combinedFridgeIngredientMap, List<Recipe> recipeArray,
+                             RecipeCatalog recipeCatalog, long excludedTagMask, SearchExplanation searchExplanation) {
     Recipe recipe = null;
     Date minDate = new Date(Long.MAX_VALUE),  // Initialize: Set minDate to the largest possible date
          recipeDate = null;
+    int index = -1;  // Position of rp in recipeArray
     
     // Loop through all the recipes
     for(Recipe rp : recipeArray){
+      index++;
+      
+      // Skip the recipe if it has any excluded tag
+      if (0 != excludedTagMask && recipeCatalog.isExcluded(index, excludedTagMask)){
+        if (null != searchExplanation){
+          searchExplanation.addRecipeExplanation(new RecipeExplanation(rp, MatchOutcome.EXCLUDED, null, 0, null));
+        }
+        continue;
+      }
+      
       // Check if this recipe has all the ingredients from FridgeIngredent
       List<Ingredient> ingredientArray = rp.getIngredientArray();
       recipeDate = getMinDateFromRecipe(combinedFridgeIngredientMap, ingredientArray);
       
+      if (null != searchExplanation){
+        searchExplanation.addRecipeExplanation(explainRecipe(combinedFridgeIngredientMap, rp, recipeDate, searchExplanation));
+      }
+      
       // If recipeDate has a value, this recipe has all the ingredients in the fridge
       // save the recipe
       if (null != recipeDate){
@@ -179,18 +472,153 @@ public class SearchRecipe {
         }
       }
     }
+    
+    if (null != searchExplanation){
+      searchExplanation.setResult(recipe, null == recipe ? null : minDate);
+    }
     return recipe;
   }
+  
+  /*
+   * This method returns a recipe with the smallest useBy date from FridgeIngredient, using the
+   * RecipeDominance of recipeCatalog to skip recipes.
+   * 
+   * Implementation notes:
+   * The recipes are checked in the order given by RecipeDominance, where a recipe comes after all
+   * the recipes that dominate it.  When a recipe cannot be made, all the recipes it dominates are
+   * marked and skipped when their turn comes, as they cannot be made either.
+   * Because the order is not the recipe array order, a recipe with the same useBy date as the saved
+   * recipe is saved if it comes earlier in the recipe array, which gives the same recipe as
+   * the other matchRecipe().
+   * Excluded recipes are not checked, so they do not cause other recipes to be skipped.
+   * 
+   * In explain mode the recipes are recorded in the order they are checked.
+   * 
+   * @param combinedFridgeIngredientMap
+   * @param recipeCatalog
+   * @param excludedTagMask
+   * @param searchExplanation - records the outcome of each recipe, can be null
+   * @return recipe
+   */
+  private Recipe matchRecipe(Map<String, FridgeIngredient> combinedFridgeIngredientMap, RecipeCatalog recipeCatalog,
+                             long excludedTagMask, SearchExplanation searchExplanation) {
+    List<Recipe> recipeArray = recipeCatalog.getRecipeArray();
+    RecipeDominance recipeDominance = recipeCatalog.getRecipeDominance();
+    
+    Recipe recipe = null;
+    int recipeIndex = -1;
+    Date minDate = new Date(Long.MAX_VALUE),  // Initialize: Set minDate to the largest possible date
+         recipeDate = null;
+    boolean[] pruned = new boolean[recipeArray.size()];
+    int checkedCount = 0, prunedCount = 0;
+    
+    for (int index : recipeDominance.getOrder()){
+      Recipe rp = recipeArray.get(index);
+      
+      // Skip the recipe if it has any excluded tag
+      if (0 != excludedTagMask && recipeCatalog.isExcluded(index, excludedTagMask)){
+        if (null != searchExplanation){
+          searchExplanation.addRecipeExplanation(new RecipeExplanation(rp, MatchOutcome.EXCLUDED, null, 0, null));
+        }
+        continue;
+      }
+      
+      // Skip the recipe if a recipe dominating it cannot be made
+      if (pruned[index]){
+        prunedCount++;
+        if (null != searchExplanation){
+          searchExplanation.addPrunedRecipeExplanation(explainRecipe(combinedFridgeIngredientMap, rp, null, searchExplanation));
+        }
+        continue;
+      }
+      
+      checkedCount++;
+      recipeDate = getMinDateFromRecipe(combinedFridgeIngredientMap, rp.getIngredientArray());
+      
+      if (null != searchExplanation){
+        searchExplanation.addRecipeExplanation(explainRecipe(combinedFridgeIngredientMap, rp, recipeDate, searchExplanation));
+      }
+      
+      if (null == recipeDate){
+        // None of the recipes this recipe dominates can be made
+        recipeDominance.prune(index, pruned);
+      }else if (recipeDate.before(minDate) || (recipeDate.equals(minDate) && index < recipeIndex)){
+        minDate = recipeDate;
+        recipe = rp;
+        recipeIndex = index;
+      }
+    }
+    recipeDominance.addSearch(checkedCount, prunedCount);
+    
+    if (null != searchExplanation){
+      searchExplanation.setResult(recipe, null == recipe ? null : minDate);
+    }
+    return recipe;
+  }
+  
+  /*
+   * This method returns the explanation of why a recipe is accepted or rejected.
+   * It is only called in explain mode, so getMinDateFromRecipe() is kept free of
+   * the extra bookkeeping.
+   * 
+   * The checks are done in the same order as getMinDateFromRecipe(), so the failed
+   * ingredient is the one getMinDateFromRecipe() stopped at.
+   * 
+   * @param combinedFridgeIngredientMap
+   * @param recipe
+   * @param recipeDate - the date returned by getMinDateFromRecipe() for this recipe
+   * @param searchExplanation
+   * @return recipeExplanation
+   */
+  private RecipeExplanation explainRecipe(Map<String, FridgeIngredient> combinedFridgeIngredientMap, Recipe recipe,
+                                          Date recipeDate, SearchExplanation searchExplanation){
+    if (isMatch(recipeDate)){
+      return new RecipeExplanation(recipe, MatchOutcome.MATCHED, null, 0, recipeDate);
+    }
+    if (null != recipeDate){
+      // Only a recipe with no ingredients has a date that is not a match, see isMatch()
+      return new RecipeExplanation(recipe, MatchOutcome.NO_INGREDIENTS, null, 0, null);
+    }
+    
+    for (Ingredient ig : recipe.getIngredientArray()){
+      FridgeIngredient fi = combinedFridgeIngredientMap.get(ig.getItem());
+      if (null == fi){
+        // The item is not usable; tell apart an item that has expired from one that was never in the fridge
+        MatchOutcome outcome = searchExplanation.hasExpiredItem(ig.getItem()) ? MatchOutcome.EXPIRED_ONLY : MatchOutcome.MISSING;
+        return new RecipeExplanation(recipe, outcome, ig, 0, null);
+      }
+      if (ig.getAmount() > fi.getAmount()){
+        return new RecipeExplanation(recipe, MatchOutcome.INSUFFICIENT_AMOUNT, ig, fi.getAmount(), null);
+      }
+    }
+    
+    // Should not get here, getMinDateFromRecipe() only returns null when an ingredient fails
+    return new RecipeExplanation(recipe, MatchOutcome.MISSING, null, 0, null);
+  }
+
+  /*
+   * This method returns true if recipeDate, returned by getMinDateFromRecipe(), is a match that
+   * matchRecipe() could pick.  matchRecipe() only saves a recipe with a date before the largest possible
+   * date, so a recipe with no ingredients is never returned.  Searches that do not go through
+   * matchRecipe() use this to give the same result.
+   * 
+   * @param recipeDate
+   * @return true if the recipe is a match
+   */
+  static boolean isMatch(Date recipeDate){
+    return null != recipeDate && recipeDate.getTime() < Long.MAX_VALUE;
+  }
 
   /*
    * This method returns the minimum date of the FridgeIngredient if combinedFridgeIngredientMap 
    * contains all the ingredients in ingredientArray, otherwise null.
+   * Also used by RecipeShardWorker to search its shard of recipes.
    * 
    * @param combinedFridgeIngredientMap
    * @param ingredientArray
    * @return minDate
    */
-  private Date getMinDateFromRecipe(Map<String, FridgeIngredient> combinedFridgeIngredientMap, List<Ingredient> ingredientArray) {
+  Date getMinDateFromRecipe(Map<String, FridgeIngredient> combinedFridgeIngredientMap, List<Ingredient> ingredientArray) {
     Date minDate = new Date(Long.MAX_VALUE);  // Initialize: Set minDate to the largest possible date
     
     // Instaed of using an iterator and a while loop to go through
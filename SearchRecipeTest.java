@@ -0,0 +1,486 @@
+/*
+ * Test SearchRecipe
+ */
+package recipefinder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.Assert;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author slee
+ */
+public class SearchRecipeTest {
+  private List<FridgeIngredient> fridgeIngredientArray;
+  private List<Recipe> recipeArray;
+
+  public SearchRecipeTest() {
+  }
+
+  @Before
+  public void setUp() {
+    fridgeIngredientArray = new ArrayList<FridgeIngredient>();
+    fridgeIngredientArray.add(new FridgeIngredient("bread", 10, Unit.slices, date(2014, 12, 25)));
+    fridgeIngredientArray.add(new FridgeIngredient("cheese", 10, Unit.slices, date(2014, 12, 25)));
+    fridgeIngredientArray.add(new FridgeIngredient("butter", 250, Unit.grams, date(2014, 12, 25)));
+    fridgeIngredientArray.add(new FridgeIngredient("peanut butter", 250, Unit.grams, date(2014, 12, 2)));
+    fridgeIngredientArray.add(new FridgeIngredient("mixed salad", 150, Unit.grams, date(2013, 12, 26)));
+
+    recipeArray = new ArrayList<Recipe>();
+    recipeArray.add(recipe("grilled cheese on toast", new Ingredient("bread", 2, Unit.slices),
+                                                      new Ingredient("cheese", 2, Unit.slices)));
+    recipeArray.add(recipe("salad sandwich", new Ingredient("bread", 2, Unit.slices),
+                                             new Ingredient("mixed salad", 100, Unit.grams)));
+    recipeArray.add(recipe("cheese platter", new Ingredient("cheese", 20, Unit.slices)));
+    recipeArray.add(recipe("ham sandwich", new Ingredient("bread", 2, Unit.slices),
+                                           new Ingredient("ham", 2, Unit.slices)));
+  }
+
+  /**
+   * Test of explain mode: every recipe gets an outcome and the result is unchanged
+   */
+  @Test
+  public void testExplain() {
+    recipeArray.add(recipe("empty"));
+    SearchRecipe searchRecipe = new SearchRecipe();
+    Date someDate = date(2014, 1, 1);
+
+    SearchExplanation searchExplanation = new SearchExplanation();
+    Recipe recipe = searchRecipe.search(fridgeIngredientArray, recipeArray, someDate, searchExplanation);
+
+    Assert.assertEquals(searchRecipe.search(fridgeIngredientArray, recipeArray, someDate), recipe);
+    Assert.assertEquals("grilled cheese on toast", recipe.getName());
+    Assert.assertEquals(recipe, searchExplanation.getRecipe());
+
+    Assert.assertEquals(5, searchExplanation.getFridgeItemCount());
+    Assert.assertEquals(1, searchExplanation.getExpiredFridgeItemCount());
+    Assert.assertEquals(5, searchExplanation.getRecipeCount());
+    Assert.assertEquals(1, searchExplanation.getOutcomeCount(MatchOutcome.MATCHED));
+    Assert.assertEquals(1, searchExplanation.getOutcomeCount(MatchOutcome.NO_INGREDIENTS));
+    Assert.assertEquals(1, searchExplanation.getOutcomeCount(MatchOutcome.EXPIRED_ONLY));
+    Assert.assertEquals(1, searchExplanation.getOutcomeCount(MatchOutcome.INSUFFICIENT_AMOUNT));
+    Assert.assertEquals(1, searchExplanation.getOutcomeCount(MatchOutcome.MISSING));
+
+    RecipeExplanation salad = searchExplanation.getRecipeExplanationArray().get(1);
+    Assert.assertEquals(MatchOutcome.EXPIRED_ONLY, salad.getOutcome());
+    Assert.assertEquals("mixed salad", salad.getFailedIngredient().getItem());
+
+    RecipeExplanation platter = searchExplanation.getRecipeExplanationArray().get(2);
+    Assert.assertEquals(MatchOutcome.INSUFFICIENT_AMOUNT, platter.getOutcome());
+    Assert.assertEquals(10, platter.getAvailableAmount());
+  }
+
+  /**
+   * Test of explain mode for a chosen recipe only
+   */
+  @Test
+  public void testExplainSubset() {
+    SearchExplanation searchExplanation = new SearchExplanation(Arrays.asList("ham sandwich"));
+    new SearchRecipe().search(fridgeIngredientArray, recipeArray, date(2014, 1, 1), searchExplanation);
+
+    Assert.assertEquals(4, searchExplanation.getRecipeCount());
+    Assert.assertEquals(1, searchExplanation.getRecipeExplanationArray().size());
+
+    RecipeExplanation ham = searchExplanation.getRecipeExplanationArray().get(0);
+    Assert.assertEquals(MatchOutcome.MISSING, ham.getOutcome());
+    Assert.assertEquals("ham", ham.getFailedIngredient().getItem());
+  }
+
+  /**
+   * Test of ShardedSearchRecipe against workers on the loopback address:
+   * the result is the same as searching the full recipe array
+   */
+  @Test
+  public void testShardedSearch() throws IOException {
+    // Same date as grilled cheese on toast, but later in the recipe array
+    recipeArray.add(recipe("cheese on toast", new Ingredient("bread", 1, Unit.slices),
+                                              new Ingredient("cheese", 1, Unit.slices)));
+    // No ingredients: never returned by search()
+    recipeArray.add(recipe("empty"));
+    Date someDate = date(2014, 1, 1);
+
+    int shardCount = 3;
+    List<RecipeShardWorker> workerArray = new ArrayList<RecipeShardWorker>();
+    List<InetSocketAddress> shardAddressArray = new ArrayList<InetSocketAddress>();
+    for (int i = 0; i < shardCount; i++){
+      RecipeShardWorker worker = new RecipeShardWorker(recipeArray, i, shardCount);
+      shardAddressArray.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.start(0)));
+      workerArray.add(worker);
+    }
+
+    ShardedSearchRecipe shardedSearchRecipe = new ShardedSearchRecipe(shardAddressArray);
+    try {
+      RecipeMatch recipeMatch = shardedSearchRecipe.search(fridgeIngredientArray, someDate);
+      Assert.assertEquals(new SearchRecipe().search(fridgeIngredientArray, recipeArray, someDate).getName(), recipeMatch.getName());
+      Assert.assertEquals(0, recipeMatch.getIndex());
+
+      List<RecipeMatch> recipeMatchArray = shardedSearchRecipe.search(fridgeIngredientArray, someDate, 5);
+      Assert.assertEquals(2, recipeMatchArray.size());
+      Assert.assertEquals("cheese on toast", recipeMatchArray.get(1).getName());
+      Assert.assertEquals(2, shardedSearchRecipe.search(fridgeIngredientArray, someDate, Integer.MAX_VALUE).size());
+
+      Assert.assertNull(new SearchRecipe().search(fridgeIngredientArray, recipeArray, date(2015, 1, 1)));
+      Assert.assertNull(shardedSearchRecipe.search(fridgeIngredientArray, date(2015, 1, 1)));
+
+      // The workers have no ingredient tags, so they refuse to exclude any
+      try {
+        shardedSearchRecipe.search(fridgeIngredientArray, someDate, 5, Arrays.asList("nuts"));
+        Assert.fail("Expected the shards to refuse excluded tags");
+      } catch (IllegalArgumentException ex) {
+        Assert.assertTrue(ex.getMessage().contains("refused"));
+      }
+
+      // A shard that cannot be reached is reported to the caller
+      workerArray.get(0).stop();
+      try {
+        shardedSearchRecipe.search(fridgeIngredientArray, someDate);
+        Assert.fail("Expected the stopped shard to fail the search");
+      } catch (IOException ex) {
+        // Expected
+      }
+    } finally {
+      shardedSearchRecipe.shutdown();
+      for (RecipeShardWorker worker : workerArray){
+        worker.stop();
+      }
+    }
+  }
+
+  /**
+   * Test of ShardedSearchRecipe with worker processes started by startLocalWorkers()
+   */
+  @Test
+  public void testShardedSearchLocalWorkers() throws IOException {
+    File recipeJsonFile = writeRecipeJson(recipeArray);
+
+    // Each worker reads only its own shard, with the position of each recipe in the file
+    int recipeCount = 0;
+    for (int i = 0; i < 2; i++){
+      List<Integer> recipeIndexArray = new ArrayList<Integer>();
+      List<Recipe> shardRecipeArray = new RecipeReader().getRecipe(recipeJsonFile.getPath(), i, 2, recipeIndexArray);
+      Assert.assertEquals(shardRecipeArray.size(), recipeIndexArray.size());
+      for (int j = 0; j < shardRecipeArray.size(); j++){
+        Recipe recipe = recipeArray.get(recipeIndexArray.get(j));
+        Assert.assertEquals(recipe.getName(), shardRecipeArray.get(j).getName());
+        Assert.assertEquals(recipe.getIngredientArray().size(), shardRecipeArray.get(j).getIngredientArray().size());
+        Assert.assertEquals(i, RecipeShardWorker.getShard(recipe, 2));
+      }
+      recipeCount += shardRecipeArray.size();
+    }
+    Assert.assertEquals(recipeArray.size(), recipeCount);
+
+    ShardedSearchRecipe shardedSearchRecipe = ShardedSearchRecipe.startLocalWorkers(recipeJsonFile.getPath(), 2);
+    try {
+      for (Date someDate : Arrays.asList(date(2013, 12, 1), date(2014, 1, 1), date(2015, 1, 1))){
+        Recipe recipe = new SearchRecipe().search(fridgeIngredientArray, recipeArray, someDate);
+        RecipeMatch recipeMatch = shardedSearchRecipe.search(fridgeIngredientArray, someDate);
+
+        Assert.assertEquals(null == recipe ? null : recipe.getName(), null == recipeMatch ? null : recipeMatch.getName());
+      }
+
+      // Started without an ingredient tag file, so excluded tags are refused
+      try {
+        shardedSearchRecipe.search(fridgeIngredientArray, date(2014, 1, 1), 1, Arrays.asList("nuts"));
+        Assert.fail("Expected excluded tags to be refused");
+      } catch (IllegalArgumentException ex) {
+        Assert.assertTrue(ex.getMessage().contains("tag file"));
+      }
+    } finally {
+      shardedSearchRecipe.shutdown();
+      recipeJsonFile.delete();
+    }
+  }
+
+  /**
+   * Test of FridgeInventory: cooking takes from the batch that expires first and
+   * the combined map used by SearchRecipe follows the batches left
+   */
+  @Test
+  public void testFridgeInventoryCook() {
+    fridgeIngredientArray.add(new FridgeIngredient("bread", 3, Unit.slices, date(2014, 12, 23)));
+    FridgeInventory fridgeInventory = new FridgeInventory(fridgeIngredientArray);
+    Recipe grilledCheese = recipeArray.get(0);
+    Date someDate = date(2014, 1, 1);
+
+    // 2 slices from the 3 slices expiring on 23/12, then 2 slices from the other 1 + 10 slices
+    List<FridgeIngredient> usedFridgeIngredientArray = fridgeInventory.cook(grilledCheese, someDate);
+    Assert.assertEquals(2, usedFridgeIngredientArray.size());
+    Assert.assertEquals(11, fridgeInventory.getCombinedFridgeIngredientMap().get("bread").getAmount());
+    Assert.assertEquals(date(2014, 12, 23), fridgeInventory.getCombinedFridgeIngredientMap().get("bread").getUseBy());
+
+    usedFridgeIngredientArray = fridgeInventory.cook(grilledCheese, someDate);
+    Assert.assertEquals(3, usedFridgeIngredientArray.size());
+    Assert.assertEquals(9, fridgeInventory.getCombinedFridgeIngredientMap().get("bread").getAmount());
+    Assert.assertEquals(date(2014, 12, 25), fridgeInventory.getCombinedFridgeIngredientMap().get("bread").getUseBy());
+    Assert.assertEquals(6, fridgeInventory.getCombinedFridgeIngredientMap().get("cheese").getAmount());
+
+    // Search on the inventory gives the same result as searching the batches left
+    SearchRecipe searchRecipe = new SearchRecipe();
+    List<FridgeIngredient> remainingArray = fridgeInventory.getFridgeIngredientArray();
+    Assert.assertEquals(searchRecipe.search(remainingArray, recipeArray, someDate),
+                        searchRecipe.search(fridgeInventory, recipeArray, someDate));
+    Assert.assertNull(fridgeInventory.getCombinedFridgeIngredientMap().get("mixed salad"));
+
+    // Not enough cheese left: nothing is taken
+    Assert.assertNull(fridgeInventory.cook(recipeArray.get(2), someDate));
+    Assert.assertEquals(6, fridgeInventory.getCombinedFridgeIngredientMap().get("cheese").getAmount());
+
+    // An item not in the fridge cannot be used, even for an amount of 0, as in search()
+    Recipe saltedToast = recipe("salted toast", new Ingredient("bread", 1, Unit.slices),
+                                                new Ingredient("salt", 0, Unit.grams));
+    Assert.assertNull(searchRecipe.search(remainingArray, Arrays.asList(saltedToast), someDate));
+    Assert.assertFalse(fridgeInventory.canCook(saltedToast, someDate));
+    Assert.assertNull(fridgeInventory.cook(saltedToast, someDate));
+    Assert.assertEquals(9, fridgeInventory.getCombinedFridgeIngredientMap().get("bread").getAmount());
+
+    // Same for an item whose batches have all expired
+    Recipe peanutButterToast = recipe("peanut butter toast", new Ingredient("bread", 1, Unit.slices),
+                                                             new Ingredient("peanut butter", 0, Unit.grams));
+    Assert.assertTrue(fridgeInventory.canCook(peanutButterToast, someDate));
+    Assert.assertFalse(fridgeInventory.canCook(peanutButterToast, date(2014, 12, 3)));
+  }
+
+  /**
+   * Test of FridgeInventory when the earliest batch has expired: it is not counted or used
+   * for cooking, and searching does not change the inventory
+   */
+  @Test
+  public void testFridgeInventoryExpired() {
+    fridgeIngredientArray.add(new FridgeIngredient("bread", 3, Unit.slices, date(2013, 12, 20)));
+    FridgeInventory fridgeInventory = new FridgeInventory(fridgeIngredientArray);
+    SearchRecipe searchRecipe = new SearchRecipe();
+    Date someDate = date(2014, 1, 1);
+
+    // Searching a later date first, then an earlier date, gives the same as searching the array
+    for (Date date : Arrays.asList(someDate, date(2013, 12, 1))){
+      Assert.assertEquals(searchRecipe.search(fridgeIngredientArray, recipeArray, date),
+                          searchRecipe.search(fridgeInventory, recipeArray, date));
+    }
+    Assert.assertEquals(13, fridgeInventory.getCombinedFridgeIngredientMap().get("bread").getAmount());
+
+    // 13 slices in the fridge, but only 10 have not expired
+    Recipe bigToast = recipe("big toast", new Ingredient("bread", 12, Unit.slices));
+    Assert.assertTrue(fridgeInventory.canCook(bigToast, date(2013, 12, 1)));
+    Assert.assertFalse(fridgeInventory.canCook(bigToast, someDate));
+    Assert.assertNull(fridgeInventory.cook(bigToast, someDate));
+
+    // The bread is taken from the batch expiring on 25/12/2014, not the expired one
+    for (FridgeIngredient used : fridgeInventory.cook(recipeArray.get(0), someDate)){
+      Assert.assertEquals(date(2014, 12, 25), used.getUseBy());
+    }
+    Assert.assertEquals(8, fridgeInventory.getCombinedFridgeIngredientMap().get("bread").getAmount());
+  }
+
+  /**
+   * Test of excluding recipes by ingredient tag
+   */
+  @Test
+  public void testExcludedTags() {
+    Map<String, List<String>> ingredientTagMap = new HashMap<String, List<String>>();
+    ingredientTagMap.put("cheese", Arrays.asList("dairy"));
+    ingredientTagMap.put("mixed salad", Arrays.asList("vegetable"));
+    ingredientTagMap.put("ham", Arrays.asList("meat"));
+    RecipeCatalog recipeCatalog = new RecipeCatalog(recipeArray, ingredientTagMap);
+
+    SearchRecipe searchRecipe = new SearchRecipe();
+    Date someDate = date(2013, 12, 1);
+
+    Assert.assertEquals("salad sandwich", searchRecipe.search(fridgeIngredientArray, recipeCatalog, someDate, null).getName());
+    Assert.assertEquals("salad sandwich",
+                        searchRecipe.search(fridgeIngredientArray, recipeCatalog, someDate, Arrays.asList("meat")).getName());
+    Assert.assertEquals("grilled cheese on toast",
+                        searchRecipe.search(fridgeIngredientArray, recipeCatalog, someDate, Arrays.asList("vegetable")).getName());
+
+    SearchExplanation searchExplanation = new SearchExplanation();
+    Assert.assertNull(searchRecipe.search(fridgeIngredientArray, recipeCatalog, someDate,
+                                          Arrays.asList("vegetable", "dairy"), searchExplanation));
+    Assert.assertEquals(3, searchExplanation.getOutcomeCount(MatchOutcome.EXCLUDED));
+
+    // A shard skips the same recipes
+    RecipeShardWorker worker = new RecipeShardWorker(recipeArray, ingredientTagMap, 0, 1);
+    Map<String, FridgeIngredient> combinedFridgeIngredientMap = searchRecipe.getCombinedFridgeIngredientMap(fridgeIngredientArray, someDate);
+    Assert.assertEquals(2, worker.search(combinedFridgeIngredientMap, 5).size());
+    Assert.assertEquals(1, worker.search(combinedFridgeIngredientMap, 5, Arrays.asList("vegetable")).size());
+
+    // A tag that is not in the ingredient tag map, e.g. misspelt, is refused rather than ignored
+    try {
+      searchRecipe.search(fridgeIngredientArray, recipeCatalog, someDate, Arrays.asList("meat", "vegetables"));
+      Assert.fail("Expected the unknown tag to be refused");
+    } catch (IllegalArgumentException ex) {
+      Assert.assertTrue(ex.getMessage().contains("vegetables"));
+    }
+    try {
+      worker.search(combinedFridgeIngredientMap, 5, Arrays.asList("vegetables"));
+      Assert.fail("Expected the unknown tag to be refused");
+    } catch (IllegalArgumentException ex) {
+      Assert.assertTrue(ex.getMessage().contains("vegetables"));
+    }
+
+    // Without an ingredient tag map, excluding tags is refused rather than ignored
+    RecipeCatalog tagLessRecipeCatalog = new RecipeCatalog(recipeArray, null);
+    Assert.assertNotNull(searchRecipe.search(fridgeIngredientArray, tagLessRecipeCatalog, someDate, null));
+    try {
+      searchRecipe.search(fridgeIngredientArray, tagLessRecipeCatalog, someDate, Arrays.asList("nuts"));
+      Assert.fail("Expected excluded tags to be refused");
+    } catch (IllegalArgumentException ex) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test of the timeline: the recipe for each day is the same as searching on that day
+   */
+  @Test
+  public void testTimeline() {
+    fridgeIngredientArray.add(new FridgeIngredient("bread", 3, Unit.slices, date(2013, 12, 20)));
+    fridgeIngredientArray.add(new FridgeIngredient("mixed salad", 100, Unit.grams, date(2013, 12, 28)));
+    fridgeIngredientArray.add(new FridgeIngredient("ham", 5, Unit.slices, date(2013, 12, 24)));
+    // No ingredients: never returned by search()
+    recipeArray.add(recipe("empty"));
+
+    SearchRecipe searchRecipe = new SearchRecipe();
+    Date fromDate = date(2013, 12, 15), toDate = date(2014, 12, 31);
+    RecipeTimeline recipeTimeline = searchRecipe.timeline(fridgeIngredientArray, recipeArray, fromDate, toDate);
+
+    Calendar cal = Calendar.getInstance();
+    cal.setTime(fromDate);
+    while (!cal.getTime().after(toDate)){
+      Assert.assertEquals(searchRecipe.search(fridgeIngredientArray, recipeArray, cal.getTime()),
+                          recipeTimeline.getRecipe(cal.getTime()));
+      cal.add(Calendar.HOUR_OF_DAY, 12);
+    }
+
+    // grilled cheese on toast, ham sandwich after the bread on 20/12/2013, salad sandwich after the ham,
+    // grilled cheese on toast after the salad, then Order Takeout after the rest of the bread and cheese
+    Assert.assertEquals(5, recipeTimeline.getRecipeArray().size());
+    Assert.assertEquals("ham sandwich", recipeTimeline.getRecipeArray().get(1).getName());
+    Assert.assertEquals("salad sandwich", recipeTimeline.getRecipeArray().get(2).getName());
+    Assert.assertNull(recipeTimeline.getRecipeArray().get(4));
+  }
+
+  /**
+   * Test of dominance pruning: the recipe is the same as checking every recipe
+   */
+  @Test
+  public void testRecipeDominance() {
+    // Variants of the recipes in setUp, and a copy of grilled cheese on toast
+    recipeArray.add(recipe("cheese toastie", new Ingredient("bread", 2, Unit.slices), new Ingredient("cheese", 3, Unit.slices),
+                                             new Ingredient("butter", 20, Unit.grams)));
+    recipeArray.add(recipe("salad roll", new Ingredient("bread", 2, Unit.slices), new Ingredient("mixed salad", 120, Unit.grams)));
+    recipeArray.add(recipe("ham and cheese", new Ingredient("bread", 4, Unit.slices), new Ingredient("ham", 2, Unit.slices),
+                                             new Ingredient("cheese", 2, Unit.slices)));
+    recipeArray.add(recipe("grilled cheese on toast", new Ingredient("bread", 2, Unit.slices),
+                                                      new Ingredient("cheese", 2, Unit.slices)));
+
+    RecipeCatalog recipeCatalog = new RecipeCatalog(recipeArray, new HashMap<String, List<String>>());
+    RecipeDominance recipeDominance = recipeCatalog.buildRecipeDominance();
+    Assert.assertEquals(4, recipeDominance.getDominatedCount());
+
+    // Search with random fridges on a few dates
+    SearchRecipe searchRecipe = new SearchRecipe();
+    String[] items = {"bread", "cheese", "butter", "mixed salad", "ham"};
+    Random random = new Random(1);
+    for (int i = 0; i < 200; i++){
+      List<FridgeIngredient> randomFridgeIngredientArray = new ArrayList<FridgeIngredient>();
+      for (String item : items){
+        if (random.nextInt(4) > 0){
+          randomFridgeIngredientArray.add(new FridgeIngredient(item, random.nextInt(150), Unit.slices,
+                                                               date(2013, 12, 1 + random.nextInt(5))));
+        }
+      }
+      Date someDate = date(2013, 12, 1 + random.nextInt(3));
+      Assert.assertEquals(searchRecipe.search(randomFridgeIngredientArray, recipeArray, someDate),
+                          searchRecipe.search(randomFridgeIngredientArray, recipeCatalog, someDate, null));
+    }
+    Assert.assertEquals(200, recipeDominance.getSearchCount());
+    Assert.assertTrue(recipeDominance.getPrunedCount() > 0);
+
+    // No ham: ham sandwich fails, so ham and cheese is skipped but still explained
+    SearchExplanation searchExplanation = new SearchExplanation();
+    searchRecipe.search(fridgeIngredientArray, recipeCatalog, date(2013, 12, 1), null, searchExplanation);
+    Assert.assertEquals(1, searchExplanation.getPrunedRecipeCount());
+    Assert.assertEquals(2, searchExplanation.getOutcomeCount(MatchOutcome.MISSING));
+
+    // Only the closest dominators are kept, whatever the order of the recipe array: A -> B -> C
+    List<Recipe> chainArray = new ArrayList<Recipe>();
+    chainArray.add(recipe("C", new Ingredient("bread", 2, Unit.slices), new Ingredient("cheese", 2, Unit.slices),
+                               new Ingredient("ham", 2, Unit.slices)));
+    chainArray.add(recipe("B", new Ingredient("bread", 2, Unit.slices), new Ingredient("cheese", 2, Unit.slices)));
+    chainArray.add(recipe("A", new Ingredient("bread", 2, Unit.slices)));
+    Assert.assertEquals(2, new RecipeDominance(chainArray).getEdgeCount());
+    Collections.reverse(chainArray);
+    Assert.assertEquals(2, new RecipeDominance(chainArray).getEdgeCount());
+  }
+
+  /*
+   * This method writes the recipes to a temporary json file in the format read by RecipeReader
+   * 
+   * @param recipeArray
+   * @return recipeJsonFile
+   */
+  @SuppressWarnings("unchecked")
+  private static File writeRecipeJson(List<Recipe> recipeArray) throws IOException {
+    JSONArray jsonRecipeArray = new JSONArray();
+    for (Recipe rp : recipeArray){
+      JSONArray jsonIngredientArray = new JSONArray();
+      for (Ingredient ig : rp.getIngredientArray()){
+        JSONObject jsonIngredientObject = new JSONObject();
+        jsonIngredientObject.put(Ingredient.ITEM, ig.getItem());
+        jsonIngredientObject.put(Ingredient.AMOUNT, String.valueOf(ig.getAmount()));
+        jsonIngredientObject.put(Ingredient.UNIT, ig.getUnit().name());
+        jsonIngredientArray.add(jsonIngredientObject);
+      }
+      JSONObject jsonRecipeObject = new JSONObject();
+      jsonRecipeObject.put(Recipe.NAME, rp.getName());
+      jsonRecipeObject.put(Recipe.INGREDIENTS, jsonIngredientArray);
+      jsonRecipeArray.add(jsonRecipeObject);
+    }
+
+    File recipeJsonFile = File.createTempFile("recipes", ".json");
+    FileWriter writer = new FileWriter(recipeJsonFile);
+    jsonRecipeArray.writeJSONString(writer);
+    writer.close();
+    return recipeJsonFile;
+  }
+
+  /*
+   * @param year
+   * @param month - 1 to 12
+   * @param day
+   * @return date
+   */
+  private static Date date(int year, int month, int day){
+    Calendar cal = Calendar.getInstance();
+    cal.clear();
+    cal.set(year, month - 1, day);
+    return cal.getTime();
+  }
+
+  /*
+   * @param name
+   * @param ingredients
+   * @return recipe
+   */
+  private static Recipe recipe(String name, Ingredient... ingredients){
+    Recipe recipe = new Recipe(name);
+    recipe.setIngredientArray(new ArrayList<Ingredient>(Arrays.asList(ingredients)));
+    return recipe;
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * This class searches a recipe array that is split across several RecipeShardWorker processes.
+ * 
+ * The fridge items are filtered by date and combined once here, the same way SearchRecipe.search()
+ * does, then the combined map is sent to all the shards in parallel.  Each shard returns its best
+ * recipes and the results are merged by the smallest useBy date; recipes with the same date are
+ * ordered by their position in the full recipe array.  This gives the same recipe as running
+ * SearchRecipe.search() on the full recipe array.
+ * 
+ * Recipes can be excluded by ingredient tag as in SearchRecipe; each shard skips its excluded
+ * recipes using the tag masks it built when it loaded the recipes.  A worker started without an
+ * ingredient tag file refuses a search with excluded tags, and so does a ShardedSearchRecipe
+ * whose workers were started by startLocalWorkers() without one.
+ * 
+ * startLocalWorkers() starts the workers as local processes listening on the loopback address,
+ * so the whole setup can run on one machine.  What the workers print is passed on to System.err,
+ * so it does not mix with the answer printed on System.out.
+ * 
+ * A worker that cannot be started or reached is reported to the caller as an IOException.
+ */
+package recipefinder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author slee
+ */
+public class ShardedSearchRecipe {
+  public final static int SHARD_TIMEOUT_MILLIS = 30000;   // A shard that does not answer within this time fails the search
+  
+  private List<InetSocketAddress> shardAddressArray;
+  private List<Process> processArray = new ArrayList<Process>();   // Workers started by startLocalWorkers()
+  private boolean hasIngredientTag = true;                          // false if the workers were started without a tag file
+  private ExecutorService executor;
+  
+  /*
+   * @param shardAddressArray - address of each RecipeShardWorker
+   */
+  public ShardedSearchRecipe(List<InetSocketAddress> shardAddressArray){
+    this.shardAddressArray = new ArrayList<InetSocketAddress>(shardAddressArray);
+    this.executor = Executors.newFixedThreadPool(shardAddressArray.size());
+  }
+  
+  /*
+   * This method starts shardCount RecipeShardWorker processes on this machine for the given
+   * recipe json file, and returns a ShardedSearchRecipe that searches them.
+   * The workers use the same java and classpath as this process.
+   * 
+   * @param recipeJsonFilePath
+   * @param shardCount
+   * @return shardedSearchRecipe
+   * @throws IOException if a worker cannot be started
+   */
+  public static ShardedSearchRecipe startLocalWorkers(String recipeJsonFilePath, int shardCount) throws IOException {
+    return startLocalWorkers(recipeJsonFilePath, null, shardCount);
+  }
+  
+  /*
+   * This method is the same as above, but the workers also read the ingredient tag file
+   * so recipes can be excluded by tag.
+   * 
+   * @param recipeJsonFilePath
+   * @param ingredientTagJsonFilePath - can be null
+   * @param shardCount
+   * @return shardedSearchRecipe
+   * @throws IOException if a worker cannot be started; the workers already started are stopped
+   */
+  public static ShardedSearchRecipe startLocalWorkers(String recipeJsonFilePath, String ingredientTagJsonFilePath,
+                                                      int shardCount) throws IOException {
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    String classPath = System.getProperty("java.class.path");
+    
+    List<Process> processArray = new ArrayList<Process>();
+    List<InetSocketAddress> shardAddressArray = new ArrayList<InetSocketAddress>();
+    
+    try {
+      // Start all the workers first so they load the recipes at the same time
+      for (int i = 0; i < shardCount; i++){
+        List<String> command = new ArrayList<String>(Arrays.asList(java, "-cp", classPath, RecipeShardWorker.class.getName(),
+                                                                   recipeJsonFilePath, String.valueOf(i), String.valueOf(shardCount)));
+        if (null != ingredientTagJsonFilePath){
+          command.add("0");   // Any free port
+          command.add(ingredientTagJsonFilePath);
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true);
+        processArray.add(processBuilder.start());
+      }
+      
+      // Wait for each worker to print its port
+      for (Process process : processArray){
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), RecipeShardWorker.CHARSET));
+        String line;
+        while (null != (line = reader.readLine()) && !line.startsWith(RecipeShardWorker.LISTENING + " ")){
+          System.err.println(line);   // Pass on anything else the worker prints, e.g. errors
+        }
+        if (null == line){
+          throw new IOException("Worker exited before listening");
+        }
+        int port = Integer.parseInt(line.substring(RecipeShardWorker.LISTENING.length() + 1).trim());
+        shardAddressArray.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        
+        // Keep reading what the worker prints, e.g. logged errors, so it does not block on a full pipe
+        passOnOutput(reader);
+      }
+    } catch (IOException ex) {
+      for (Process process : processArray){
+        process.destroy();
+      }
+      throw new IOException("Error starting recipe shard workers", ex);
+    }
+    
+    ShardedSearchRecipe shardedSearchRecipe = new ShardedSearchRecipe(shardAddressArray);
+    shardedSearchRecipe.processArray = processArray;
+    shardedSearchRecipe.hasIngredientTag = null != ingredientTagJsonFilePath;
+    return shardedSearchRecipe;
+  }
+  
+  /*
+   * This method starts a daemon thread that prints every line read from a worker to System.err until the worker exits
+   * 
+   * @param reader
+   */
+  private static void passOnOutput(final BufferedReader reader){
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          String line;
+          while (null != (line = reader.readLine())){
+            System.err.println(line);
+          }
+        } catch (IOException ex) {
+          // The worker has been stopped
+        }
+      }
+    }, "RecipeShardWorker-output");
+    thread.setDaemon(true);
+    thread.start();
+  }
+  
+  /*
+   * This method stops the workers started by startLocalWorkers()
+   */
+  public void shutdown(){
+    executor.shutdown();
+    for (Process process : processArray){
+      process.destroy();
+    }
+  }
+  
+  /*
+   * This method returns the recipe with the smallest useBy date across all the shards.
+   * If no recipe is found, returns null.
+   * 
+   * @param fridgeIngredientArray
+   * @param someDate
+   * @return recipeMatch
+   * @throws IOException if a shard cannot be searched
+   */
+  public RecipeMatch search(List<FridgeIngredient> fridgeIngredientArray, Date someDate) throws IOException {
+    List<RecipeMatch> recipeMatchArray = search(fridgeIngredientArray, someDate, 1);
+    return recipeMatchArray.isEmpty() ? null : recipeMatchArray.get(0);
+  }
+  
+  /*
+   * This method returns up to topK recipes with the smallest useBy dates across all the shards, best first.
+   * 
+   * @param fridgeIngredientArray
+   * @param someDate
+   * @param topK
+   * @return recipeMatchArray
+   * @throws IOException if a shard cannot be searched
+   */
+  public List<RecipeMatch> search(List<FridgeIngredient> fridgeIngredientArray, Date someDate, int topK) throws IOException {
+    return search(fridgeIngredientArray, someDate, topK, null);
+  }
+  
+  /*
+   * This method is the same as above, but skips the recipes with any of the excludedTags.
+   * Tags cannot contain a comma or a line break, as they are sent in the request line.
+   * 
+   * @param fridgeIngredientArray
+   * @param someDate
+   * @param topK
+   * @param excludedTags - e.g. meat, nuts, dairy; can be null or empty
+   * @return recipeMatchArray
+   * @throws IOException if a shard cannot be searched, or the search is interrupted
+   * @throws IllegalArgumentException if there are excludedTags but the workers have no ingredient tag file,
+   *         or a shard refuses the search
+   */
+  public List<RecipeMatch> search(List<FridgeIngredient> fridgeIngredientArray, Date someDate, int topK,
+                                  Collection<String> excludedTags) throws IOException {
+    if (topK < 1){
+      throw new IllegalArgumentException("topK must be at least 1: " + topK);
+    }
+    if (null != excludedTags && !excludedTags.isEmpty() && !hasIngredientTag){
+      throw new IllegalArgumentException("Workers started without an ingredient tag file, cannot exclude tags " + excludedTags);
+    }
+    
+    // Filter and combine once, then send the same request to every shard
+    Map<String, FridgeIngredient> combinedFridgeIngredientMap =
+            new SearchRecipe().getCombinedFridgeIngredientMap(fridgeIngredientArray, someDate);
+    
+    StringBuilder sb = new StringBuilder();
+    sb.append(RecipeShardWorker.SEARCH).append(" ").append(topK);
+    if (null != excludedTags && !excludedTags.isEmpty()){
+      String splitter = " ";
+      for (String tag : excludedTags){
+        sb.append(splitter).append(tag);
+        splitter = RecipeShardWorker.SPLITTER;
+      }
+    }
+    sb.append("\n");
+    for (FridgeIngredient fi : combinedFridgeIngredientMap.values()){
+      sb.append(fi.getItem()).append(RecipeShardWorker.SPLITTER)
+        .append(fi.getAmount()).append(RecipeShardWorker.SPLITTER)
+        .append(fi.getUnit()).append(RecipeShardWorker.SPLITTER)
+        .append(fi.getUseBy().getTime()).append("\n");
+    }
+    sb.append(RecipeShardWorker.END).append("\n");
+    final String request = sb.toString();
+    
+    // Scatter
+    List<Future<List<RecipeMatch>>> futures = new ArrayList<Future<List<RecipeMatch>>>();
+    for (final InetSocketAddress shardAddress : shardAddressArray){
+      futures.add(executor.submit(new Callable<List<RecipeMatch>>() {
+        @Override
+        public List<RecipeMatch> call() throws IOException {
+          return searchShard(shardAddress, request);
+        }
+      }));
+    }
+    
+    // Gather
+    List<RecipeMatch> recipeMatchArray = new ArrayList<RecipeMatch>();
+    try {
+      for (Future<List<RecipeMatch>> future : futures){
+        recipeMatchArray.addAll(future.get());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted searching recipe shards");
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IllegalArgumentException){
+        throw (IllegalArgumentException) ex.getCause();   // A shard refused the search, e.g. tags without a tag file
+      }
+      throw new IOException("Error searching recipe shard", ex.getCause());
+    } finally {
+      for (Future<List<RecipeMatch>> future : futures){
+        future.cancel(true);   // Nothing left to do once all are done; stops the rest after a failure
+      }
+    }
+    
+    Collections.sort(recipeMatchArray);
+    return recipeMatchArray.size() > topK ? new ArrayList<RecipeMatch>(recipeMatchArray.subList(0, topK)) : recipeMatchArray;
+  }
+  
+  /*
+   * This method sends the request to one shard and reads the matched recipes
+   * 
+   * @param shardAddress
+   * @param request
+   * @return recipeMatchArray
+   * @throws IOException, e.g. SocketTimeoutException if the shard does not answer within SHARD_TIMEOUT_MILLIS
+   * @throws IllegalArgumentException if the shard refuses the search
+   */
+  private List<RecipeMatch> searchShard(InetSocketAddress shardAddress, String request) throws IOException {
+    List<RecipeMatch> recipeMatchArray = new ArrayList<RecipeMatch>();
+    Socket socket = new Socket(shardAddress.getAddress(), shardAddress.getPort());
+    
+    try {
+      socket.setSoTimeout(SHARD_TIMEOUT_MILLIS);
+      PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), RecipeShardWorker.CHARSET));
+      writer.print(request);
+      writer.flush();
+      
+      BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), RecipeShardWorker.CHARSET));
+      String line;
+      while (null != (line = reader.readLine()) && !RecipeShardWorker.END.equals(line)){
+        if (line.startsWith(RecipeShardWorker.ERROR + " ")){
+          throw new IllegalArgumentException("Shard " + shardAddress + " refused the search: "
+                                + line.substring(RecipeShardWorker.ERROR.length() + 1));
+        }
+        // The name is last and may contain the splitter
+        String[] fields = line.split(RecipeShardWorker.SPLITTER, 3);
+        recipeMatchArray.add(new RecipeMatch(fields[2], Integer.parseInt(fields[0]), new Date(Long.parseLong(fields[1]))));
+      }
+      if (null == line){
+        throw new IOException("Incomplete response from shard " + shardAddress);
+      }
+    } finally {
+      socket.close();
+    }
+    return recipeMatchArray;
+  }
+}